@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.data.provider.DataGenerator;
+import com.vaadin.flow.data.renderer.Rendering;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.shared.Registration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@code Rendering} that generates the data of the items in batches. The generation of the data is
+ * deferred until the response is about to be sent to the client, and then the data of all the
+ * pending items is generated within a batch, so that each {@link BatchValueProvider} is called once
+ * for all of them.
+ */
+@SuppressWarnings("serial")
+final class BatchRendering<SOURCE> implements Rendering<SOURCE> {
+
+  private final Rendering<SOURCE> rendering;
+
+  private final Element container;
+
+  /** The pending invocations of {@code generateData}, as the item and its JSON object. */
+  private transient List<Object[]> pending;
+
+  /**
+   * Transient, since the data generator references this rendering, and a serialized lambda cannot
+   * be part of a reference cycle.
+   */
+  private transient DataGenerator<SOURCE> dataGenerator;
+
+  BatchRendering(Rendering<SOURCE> rendering, Element container) {
+    this.rendering = rendering;
+    this.container = container;
+  }
+
+  @Override
+  public Optional<DataGenerator<SOURCE>> getDataGenerator() {
+    return rendering.getDataGenerator().map(delegate -> getOrCreateDataGenerator());
+  }
+
+  private DataGenerator<SOURCE> getOrCreateDataGenerator() {
+    if (dataGenerator == null) {
+      dataGenerator = DataGenerators.create(this::schedule);
+    }
+    return dataGenerator;
+  }
+
+  @Override
+  public Registration getRegistration() {
+    return rendering.getRegistration();
+  }
+
+  /** Generates the data of the pending items, within a batch. */
+  private void flush() {
+    var invocations = pending;
+    pending = null;
+    if (invocations == null) {
+      return;
+    }
+
+    List<Object> items = new ArrayList<>(invocations.size());
+    invocations.forEach(args -> items.add(args[0]));
+    BatchedValueProvider.run(items, () -> {
+      var delegate = rendering.getDataGenerator().orElse(null);
+      if (delegate != null) {
+        invocations.forEach(args -> {
+          @SuppressWarnings("unchecked")
+          SOURCE item = (SOURCE) args[0];
+          DataGenerators.generateData(delegate, item, args[1]);
+        });
+      }
+    });
+  }
+
+  /** Defers the generation of the data of an item. */
+  private void schedule(SOURCE item, Object json) {
+    if (pending == null) {
+      pending = new ArrayList<>();
+      container.getNode().runWhenAttached(ui -> ui.getInternals().getStateTree()
+          .beforeClientResponse(container.getNode(), context -> flush()));
+    }
+    pending.add(new Object[] {item, json});
+  }
+
+}
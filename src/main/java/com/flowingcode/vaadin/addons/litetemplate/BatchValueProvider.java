@@ -0,0 +1,47 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides the values of a property for a batch of items at once. A batch value provider is bound
+ * to the template through {@link LiteRenderer#batch(BatchValueProvider)}, and it is called once
+ * for the items whose data is sent to the client in the same response (such as a page of a
+ * {@code Grid}), instead of once for each item.
+ *
+ * @param <SOURCE> the type of the model object
+ * @param <T> the type of the value
+ */
+@FunctionalInterface
+public interface BatchValueProvider<SOURCE, T> extends Serializable {
+
+  /**
+   * Returns the values for the given items.
+   *
+   * @param items the items of the batch
+   * @return a map with the value of each item. An item that is not contained in the map has a
+   *         {@code null} value.
+   */
+  Map<SOURCE, T> apply(List<SOURCE> items);
+
+}
@@ -0,0 +1,108 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.function.ValueProvider;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A {@code ValueProvider} that delegates to a {@link BatchValueProvider}. Within a
+ * {@linkplain #run(List, Runnable) batch}, the batch value provider is called once for all the
+ * items of the batch, and the values are served from its result. Outside a batch, it is called
+ * with a single item.
+ *
+ * @see LiteRenderer#batch(BatchValueProvider)
+ */
+@SuppressWarnings("serial")
+@RequiredArgsConstructor
+final class BatchedValueProvider<SOURCE, T> implements ValueProvider<SOURCE, T> {
+
+  private static final ThreadLocal<Batch> currentBatch = new ThreadLocal<>();
+
+  private final BatchValueProvider<SOURCE, T> batchValueProvider;
+
+  /** The items of a batch, and the values provided for them. */
+  private static final class Batch {
+
+    private final List<?> items;
+    private final Set<?> itemSet;
+    private final Map<BatchedValueProvider<?, ?>, Map<?, ?>> values = new IdentityHashMap<>();
+
+    Batch(List<?> items) {
+      this.items = items;
+      itemSet = new HashSet<>(items);
+    }
+  }
+
+  /** Runs the given action with a batch of items. */
+  static void run(List<?> items, Runnable action) {
+    Batch previous = currentBatch.get();
+    currentBatch.set(new Batch(items));
+    try {
+      action.run();
+    } finally {
+      if (previous != null) {
+        currentBatch.set(previous);
+      } else {
+        currentBatch.remove();
+      }
+    }
+  }
+
+  /**
+   * Returns whether the given value provider delegates to a {@code BatchValueProvider}, either
+   * directly or through keyed and cached value providers.
+   */
+  static boolean isBatched(ValueProvider<?, ?> valueProvider) {
+    if (valueProvider instanceof KeyedValueProvider<?, ?> keyed) {
+      return isBatched(keyed.getValueProvider());
+    }
+    if (valueProvider instanceof CachedValueProvider<?, ?> cached) {
+      return isBatched(cached.getValueProvider());
+    }
+    return valueProvider instanceof BatchedValueProvider;
+  }
+
+  @Override
+  public T apply(SOURCE item) {
+    Batch batch = currentBatch.get();
+    Map<SOURCE, T> values;
+    if (batch != null && batch.itemSet.contains(item)) {
+      values = getValues(batch);
+    } else {
+      values = batchValueProvider.apply(List.of(item));
+    }
+    return values != null ? values.get(item) : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<SOURCE, T> getValues(Batch batch) {
+    if (!batch.values.containsKey(this)) {
+      batch.values.put(this, batchValueProvider.apply((List<SOURCE>) batch.items));
+    }
+    return (Map<SOURCE, T>) batch.values.get(this);
+  }
+
+}
@@ -0,0 +1,294 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.ValueProvider;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+
+/**
+ * A {@code ValueProvider} that caches the values of another value provider. Values are cached by
+ * item identity (or by a {@linkplain #withKey(SerializableFunction) key} of the item), and they are
+ * recomputed when the {@linkplain #withVersion(SerializableFunction) version} of the item changes.
+ * The cache is bounded by a maximum size, with entries evicted in least-recently-used order, and
+ * optionally by an expiration time.
+ * <p>
+ * When values are cached by identity, the items are weakly referenced, and the value of an item
+ * is evicted after the item is garbage collected. Note that the item is retained if the cached
+ * value references it.
+ * <p>
+ * The cache is not serialized: a deserialized provider starts with an empty cache.
+ *
+ * @param <SOURCE> the type of the model object
+ * @param <T> the type of the value
+ * @see LiteRenderer#cached(ValueProvider)
+ */
+@SuppressWarnings("serial")
+public final class CachedValueProvider<SOURCE, T> implements ValueProvider<SOURCE, T> {
+
+  private static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+  /** Placeholder of a cached {@code null} value. */
+  private static final Object NULL = new Object();
+
+  private final ValueProvider<SOURCE, T> valueProvider;
+
+  private SerializableFunction<SOURCE, ?> keyFunction;
+
+  private SerializableFunction<SOURCE, ?> versionFunction;
+
+  private int maximumSize = DEFAULT_MAXIMUM_SIZE;
+
+  /** The expiration time of the values, or {@code -1} if values do not expire. */
+  private long expirationNanos = -1;
+
+  private boolean softValues;
+
+  private transient Map<Object, Entry> cache;
+
+  /** The identity keys whose items were garbage collected. */
+  private transient ReferenceQueue<Object> staleKeys;
+
+  private transient LongAdder hits;
+
+  private transient LongAdder misses;
+
+  /** A cached value, computed for a given version of the item. */
+  private record Entry(Object version, Object value, long expiresAt) {
+
+    Object get() {
+      return value instanceof SoftReference<?> ref ? ref.get() : value;
+    }
+  }
+
+  /**
+   * A key that compares items by identity, without retaining them. A key whose item was garbage
+   * collected is only equal to itself.
+   */
+  private static final class IdentityKey extends WeakReference<Object> {
+
+    private final int hashCode;
+
+    IdentityKey(Object item, ReferenceQueue<Object> queue) {
+      super(item, queue);
+      hashCode = System.identityHashCode(item);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      Object item = get();
+      return item != null && obj instanceof IdentityKey other && item == other.get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  CachedValueProvider(@NonNull ValueProvider<SOURCE, T> valueProvider) {
+    this.valueProvider = valueProvider;
+    initCache();
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    initCache();
+  }
+
+  private void initCache() {
+    cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+        return size() > maximumSize;
+      }
+    };
+    staleKeys = new ReferenceQueue<>();
+    hits = new LongAdder();
+    misses = new LongAdder();
+  }
+
+  /**
+   * Caches the values by a key of the item, instead of by item identity. Use this method when
+   * equivalent instances of the items are fetched again from the backend (e.g. while scrolling).
+   *
+   * @param keyFunction a function that returns a key of the item, such as its ID
+   * @return this instance for method chaining
+   */
+  public CachedValueProvider<SOURCE, T> withKey(
+      @NonNull SerializableFunction<SOURCE, ?> keyFunction) {
+    this.keyFunction = keyFunction;
+    clear();
+    return this;
+  }
+
+  /**
+   * Recomputes the cached value of an item when its version changes. The versions are compared
+   * with {@code equals}.
+   *
+   * @param versionFunction a function that returns the version of the item
+   * @return this instance for method chaining
+   */
+  public CachedValueProvider<SOURCE, T> withVersion(
+      @NonNull SerializableFunction<SOURCE, ?> versionFunction) {
+    this.versionFunction = versionFunction;
+    clear();
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of cached values. The default maximum size is 10000.
+   *
+   * @param maximumSize the maximum number of cached values
+   * @return this instance for method chaining
+   * @throws IllegalArgumentException if {@code maximumSize} is negative
+   */
+  public CachedValueProvider<SOURCE, T> withMaximumSize(int maximumSize) {
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("The maximum size must not be negative");
+    }
+    this.maximumSize = maximumSize;
+    clear();
+    return this;
+  }
+
+  /**
+   * Expires the cached values after the given time since they were computed. By default, values
+   * do not expire.
+   *
+   * @param expiration the time after which the values expire
+   * @return this instance for method chaining
+   * @throws IllegalArgumentException if {@code expiration} is negative
+   */
+  public CachedValueProvider<SOURCE, T> withExpiration(@NonNull Duration expiration) {
+    if (expiration.isNegative()) {
+      throw new IllegalArgumentException("The expiration must not be negative");
+    }
+    expirationNanos = expiration.toNanos();
+    clear();
+    return this;
+  }
+
+  /**
+   * Holds the cached values through soft references, so that they can be reclaimed by the garbage
+   * collector when memory is tight.
+   *
+   * @return this instance for method chaining
+   */
+  public CachedValueProvider<SOURCE, T> withSoftValues() {
+    softValues = true;
+    clear();
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public T apply(SOURCE item) {
+    Object key = keyFunction != null ? keyFunction.apply(item) : new IdentityKey(item, null);
+    Object version = versionFunction != null ? versionFunction.apply(item) : null;
+
+    Entry entry;
+    synchronized (cache) {
+      entry = cache.get(key);
+    }
+    Object value = entry != null ? entry.get() : null;
+    if (value != null && Objects.equals(version, entry.version())
+        && (expirationNanos < 0 || System.nanoTime() - entry.expiresAt() < 0)) {
+      hits.increment();
+      return value == NULL ? null : (T) value;
+    }
+
+    misses.increment();
+    T result = valueProvider.apply(item);
+    value = result != null ? result : NULL;
+    entry = new Entry(version, softValues ? new SoftReference<>(value) : value,
+        System.nanoTime() + expirationNanos);
+    if (key instanceof IdentityKey) {
+      // only the keys stored in the cache are enqueued when their item is collected
+      key = new IdentityKey(item, staleKeys);
+    }
+    synchronized (cache) {
+      expungeStaleKeys();
+      cache.put(key, entry);
+    }
+    return result;
+  }
+
+  /** Removes the values of the items that were garbage collected. Must hold the cache lock. */
+  private void expungeStaleKeys() {
+    for (Object key; (key = staleKeys.poll()) != null;) {
+      cache.remove(key);
+    }
+  }
+
+  /** Removes all the cached values. The statistics are not reset. */
+  public void clear() {
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  /** Returns the value provider whose values are cached. */
+  ValueProvider<SOURCE, T> getValueProvider() {
+    return valueProvider;
+  }
+
+  /** Returns the number of cached values. */
+  public int size() {
+    synchronized (cache) {
+      expungeStaleKeys();
+      return cache.size();
+    }
+  }
+
+  /** Returns the number of times a value was served from the cache. */
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  /** Returns the number of times a value was computed. */
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the ratio of the values that were served from the cache, or {@code 0} if no value was
+   * requested.
+   */
+  public double getHitRate() {
+    long hits = getHitCount();
+    long total = hits + getMissCount();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+}
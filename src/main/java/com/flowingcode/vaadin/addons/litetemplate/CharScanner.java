@@ -0,0 +1,135 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import java.util.Arrays;
+
+/**
+ * Finds the first occurrence of any of a few ASCII characters in a string. Short strings are
+ * scanned once, and each character is checked against a lookup table. Longer strings are searched
+ * with {@link String#indexOf(int, int)} for each character, which the JVM vectorizes.
+ */
+final class CharScanner {
+
+  /** Strings shorter than this (from the start index) are scanned with the lookup table. */
+  private static final int MIN_INDEX_OF_LENGTH = 16;
+
+  /** Whether each ASCII character is searched. */
+  private final boolean[] table = new boolean[128];
+
+  /** The searched characters, without duplicates. */
+  private final char[] chars;
+
+  private CharScanner(char[] chars) {
+    var sb = new StringBuilder(chars.length);
+    for (char c : chars) {
+      if (c >= table.length) {
+        throw new IllegalArgumentException("Not an ASCII character: " + c);
+      }
+      if (!table[c]) {
+        table[c] = true;
+        sb.append(c);
+      }
+    }
+    this.chars = sb.toString().toCharArray();
+  }
+
+  static CharScanner of(char... chars) {
+    return new CharScanner(chars);
+  }
+
+  /**
+   * Returns the index of the first occurrence of any of the characters in {@code s}, starting at
+   * {@code from}, or {@code -1} if none of them occurs.
+   */
+  int indexIn(String s, int from) {
+    if (s.length() - from < MIN_INDEX_OF_LENGTH) {
+      return scan(s, from);
+    }
+    int index = -1;
+    for (char c : chars) {
+      int i = s.indexOf(c, from);
+      if (i >= 0 && (index < 0 || i < index)) {
+        index = i;
+      }
+    }
+    return index;
+  }
+
+  private int scan(String s, int from) {
+    for (int i = from, n = s.length(); i < n; i++) {
+      char c = s.charAt(i);
+      if (c < table.length && table[c]) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns a cursor over the occurrences of the characters in {@code s}. The next occurrence of
+   * each character is remembered, so that every character of {@code s} is searched at most once for
+   * each character of this scanner.
+   */
+  Cursor cursor(String s) {
+    return new Cursor(s);
+  }
+
+  /** Successive searches over the same string, with a non-decreasing start index. */
+  final class Cursor {
+
+    /** Not yet searched. */
+    private static final int UNKNOWN = -2;
+
+    private final String s;
+
+    /** The next occurrence of each character, {@code -1} if none, or {@link #UNKNOWN}. */
+    private final int[] next;
+
+    private Cursor(String s) {
+      this.s = s;
+      next = new int[chars.length];
+      Arrays.fill(next, UNKNOWN);
+    }
+
+    /**
+     * Returns the index of the first occurrence of any of the characters, starting at
+     * {@code from}, or {@code -1} if none of them occurs. The value of {@code from} must not be
+     * lower than in the previous call.
+     */
+    int indexFrom(int from) {
+      if (s.length() - from < MIN_INDEX_OF_LENGTH) {
+        return scan(s, from);
+      }
+      int index = -1;
+      for (int k = 0; k < next.length; k++) {
+        int i = next[k];
+        if (i != -1 && i < from) {
+          next[k] = i = s.indexOf(chars[k], from);
+        }
+        if (i >= 0 && (index < 0 || i < index)) {
+          index = i;
+        }
+      }
+      return index;
+    }
+  }
+
+}
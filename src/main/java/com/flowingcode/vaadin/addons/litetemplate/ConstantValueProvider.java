@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.function.ValueProvider;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A {@code ValueProvider} that returns the same value for every item. Strings, booleans and finite
+ * numbers are written into the template instead of being sent with each item.
+ *
+ * @see LiteRenderer#constant(Object)
+ */
+@SuppressWarnings("serial")
+@RequiredArgsConstructor
+final class ConstantValueProvider<SOURCE, T> implements ValueProvider<SOURCE, T> {
+
+  @Getter
+  private final T value;
+
+  @Override
+  public T apply(SOURCE source) {
+    return value;
+  }
+
+  /** Returns whether the value can be written into the template. */
+  boolean isInlinable() {
+    if (value instanceof Double d) {
+      return Double.isFinite(d);
+    } else if (value instanceof Float f) {
+      return Float.isFinite(f);
+    } else {
+      return value instanceof String || value instanceof Boolean || value instanceof Integer
+          || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+  }
+
+  /** Returns the value as a javascript literal. */
+  String toLiteral() {
+    if (value instanceof String s) {
+      return quote(s);
+    } else if (value instanceof Float f) {
+      return Double.toString(f.doubleValue());
+    } else {
+      return String.valueOf(value);
+    }
+  }
+
+  private static String quote(String s) {
+    StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+    for (int i = 0, n = s.length(); i < n; i++) {
+      char c = s.charAt(i);
+      switch (c) {
+        case '"', '\\' -> sb.append('\\').append(c);
+        case '\n' -> sb.append("\\n");
+        case '\r' -> sb.append("\\r");
+        case '\t' -> sb.append("\\t");
+        default -> {
+          if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+            sb.append(String.format("\\u%04x", (int) c));
+          } else {
+            sb.append(c);
+          }
+        }
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+}
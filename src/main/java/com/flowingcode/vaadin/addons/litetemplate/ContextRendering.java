@@ -0,0 +1,132 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.data.provider.DataGenerator;
+import com.vaadin.flow.data.renderer.Rendering;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.shared.Registration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@code Rendering} that generates the data of each item within a context, where the values
+ * declared through {@link LiteRenderer#withContext(String, SerializableFunction)} are computed at
+ * most once, and shared by the value providers of the item.
+ */
+@SuppressWarnings("serial")
+final class ContextRendering<SOURCE> implements Rendering<SOURCE> {
+
+  /** The contexts of the items whose data is being generated on the current thread. */
+  private static final ThreadLocal<ItemContext> currentContext = new ThreadLocal<>();
+
+  private final Rendering<SOURCE> rendering;
+
+  private final Map<String, SerializableFunction<SOURCE, ?>> functions;
+
+  /**
+   * Transient, since the data generator references this rendering, and a serialized lambda cannot
+   * be part of a reference cycle.
+   */
+  private transient DataGenerator<SOURCE> dataGenerator;
+
+  private static final class ItemContext {
+
+    private final Object item;
+    private final Map<String, ? extends SerializableFunction<?, ?>> functions;
+    private final Map<String, Object> values = new HashMap<>();
+
+    ItemContext(Object item, Map<String, ? extends SerializableFunction<?, ?>> functions) {
+      this.item = item;
+      this.functions = functions;
+    }
+
+    @SuppressWarnings("unchecked")
+    Object get(String key) {
+      if (!values.containsKey(key)) {
+        var function = (SerializableFunction<Object, ?>) functions.get(key);
+        if (function == null) {
+          throw new IllegalArgumentException("No context with key " + key);
+        }
+        values.put(key, function.apply(item));
+      }
+      return values.get(key);
+    }
+  }
+
+  ContextRendering(Rendering<SOURCE> rendering,
+      Map<String, SerializableFunction<SOURCE, ?>> functions) {
+    this.rendering = rendering;
+    this.functions = Map.copyOf(functions);
+  }
+
+  /**
+   * Returns the value of a context of the item whose data is being generated.
+   *
+   * @throws IllegalStateException if the data of no item is being generated.
+   * @throws IllegalArgumentException if there is no context with the given key.
+   */
+  static Object get(String key) {
+    var context = currentContext.get();
+    if (context == null) {
+      throw new IllegalStateException("No item is being rendered");
+    }
+    return context.get(key);
+  }
+
+  @Override
+  public Optional<DataGenerator<SOURCE>> getDataGenerator() {
+    return rendering.getDataGenerator().map(delegate -> getOrCreateDataGenerator());
+  }
+
+  private DataGenerator<SOURCE> getOrCreateDataGenerator() {
+    if (dataGenerator == null) {
+      dataGenerator = DataGenerators.create(this::generateData);
+    }
+    return dataGenerator;
+  }
+
+  @Override
+  public Registration getRegistration() {
+    return rendering.getRegistration();
+  }
+
+  /** Generates the data of an item within its context. */
+  private void generateData(SOURCE item, Object json) {
+    var delegate = rendering.getDataGenerator().orElse(null);
+    if (delegate == null) {
+      return;
+    }
+
+    var previous = currentContext.get();
+    currentContext.set(new ItemContext(item, functions));
+    try {
+      DataGenerators.generateData(delegate, item, json);
+    } finally {
+      if (previous != null) {
+        currentContext.set(previous);
+      } else {
+        currentContext.remove();
+      }
+    }
+  }
+
+}
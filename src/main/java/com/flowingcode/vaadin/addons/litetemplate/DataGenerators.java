@@ -0,0 +1,105 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.data.provider.DataGenerator;
+import java.io.Serializable;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.SerializedLambda;
+import java.util.stream.Stream;
+import lombok.SneakyThrows;
+
+/**
+ * Data generators that wrap the data generator of another rendering. The signature of
+ * {@code DataGenerator.generateData} depends on the version of Vaadin, thus the wrappers are
+ * created at runtime through {@code LambdaMetafactory}, and the wrapped data generators are called
+ * through a method handle.
+ * <p>
+ * Only {@code generateData} is wrapped, since the data generator of a {@code LitRenderer} does not
+ * implement the other methods of {@code DataGenerator}.
+ */
+final class DataGenerators {
+
+  /** The implementation of {@code generateData}, which receives the JSON object untyped. */
+  @FunctionalInterface
+  interface Target<SOURCE> extends Serializable {
+    void generateData(SOURCE item, Object json);
+  }
+
+  private DataGenerators() {}
+
+  /** The type of the JSON object that is passed to {@code generateData}. */
+  private static final Class<?> JSON_TYPE = Stream.of(DataGenerator.class.getMethods())
+      .filter(method -> method.getName().equals("generateData"))
+      .map(method -> method.getParameterTypes()[1])
+      .findFirst().orElseThrow();
+
+  private static final MethodType TARGET_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+
+  private static final MethodHandle DataGenerator_generateData = lookupGenerateData();
+
+  private static final MethodHandle factory = createFactory();
+
+  @SneakyThrows
+  private static MethodHandle lookupGenerateData() {
+    return MethodHandles.publicLookup()
+        .findVirtual(DataGenerator.class, "generateData",
+            MethodType.methodType(void.class, Object.class, JSON_TYPE))
+        .asType(MethodType.methodType(void.class, DataGenerator.class, Object.class,
+            Object.class));
+  }
+
+  @SneakyThrows
+  private static MethodHandle createFactory() {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    MethodType methodType = MethodType.methodType(void.class, Object.class, JSON_TYPE);
+    return LambdaMetafactory.altMetafactory(lookup, "generateData",
+        MethodType.methodType(DataGenerator.class, Target.class),
+        methodType,
+        lookup.findVirtual(Target.class, "generateData", TARGET_TYPE),
+        methodType,
+        LambdaMetafactory.FLAG_SERIALIZABLE).getTarget();
+  }
+
+  /** Creates a data generator whose {@code generateData} is implemented by the given target. */
+  @SuppressWarnings("unchecked")
+  @SneakyThrows
+  static <SOURCE> DataGenerator<SOURCE> create(Target<SOURCE> target) {
+    return (DataGenerator<SOURCE>) factory.invokeExact((Target<?>) target);
+  }
+
+  /** Calls {@code generateData} on a data generator. */
+  @SneakyThrows
+  static <SOURCE> void generateData(DataGenerator<SOURCE> dataGenerator, SOURCE item,
+      Object json) {
+    DataGenerator_generateData.invokeExact((DataGenerator<?>) dataGenerator, (Object) item, json);
+  }
+
+  /** Recreates a deserialized data generator (this class must not declare serializable lambdas). */
+  @SuppressWarnings("unused")
+  private static Object $deserializeLambda$(SerializedLambda lambda) {
+    return create((Target<?>) lambda.getCapturedArg(0));
+  }
+
+}
@@ -0,0 +1,251 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Index of the {@code item} properties referenced by the <code>${...}</code> expressions of a
+ * template expression. The index is conservative: if the item is used in any way other than a
+ * member access with a literal name (e.g. {@code item[name]} or {@code f(item)}), every property is
+ * considered referenced.
+ */
+@SuppressWarnings("serial")
+final class ItemReferences implements Serializable {
+
+  private static final String ITEM = "item";
+
+  // Contexts of the scanner.
+  private static final byte TEXT = 0;
+  private static final byte EXPRESSION = 1;
+
+  private final Set<String> properties;
+
+  private final boolean dynamic;
+
+  /** The members of each property that are accessed by the template. */
+  private final Map<String, Projection> projections;
+
+  private ItemReferences(Set<String> properties, boolean dynamic,
+      Map<String, Projection> projections) {
+    this.properties = Collections.unmodifiableSet(properties);
+    this.dynamic = dynamic;
+    this.projections = projections;
+  }
+
+  /** Returns whether the item is used other than by member accesses with a literal name. */
+  boolean isDynamic() {
+    return dynamic;
+  }
+
+  /** Returns the names of the properties accessed as {@code item.name}. */
+  Set<String> getProperties() {
+    return properties;
+  }
+
+  /** Returns whether the given property may be referenced by the template. */
+  boolean isReferenced(String property) {
+    return dynamic || properties.contains(property);
+  }
+
+  /**
+   * Returns the projection of the members of a property that are accessed by the template (as in
+   * {@code item.name.member}), or {@code null} if the value of the property may be used as a
+   * whole.
+   */
+  Projection getProjection(String property) {
+    if (dynamic) {
+      return null;
+    }
+    Projection projection = projections.get(property);
+    return projection != null && !projection.isWhole() ? projection : null;
+  }
+
+  /** Receives the references to the item found in a template expression. */
+  @FunctionalInterface
+  private interface ReferenceVisitor {
+    /**
+     * Visits a reference to the item, spanning from {@code start} to {@code end}.
+     *
+     * @param property the name of the accessed property, or {@code null} if the item is not used
+     *        in a member access with a literal name.
+     */
+    void visit(int start, int end, String property);
+  }
+
+  /** Builds the index of a template expression. */
+  static ItemReferences of(String template) {
+    Set<String> properties = new HashSet<>();
+    Map<String, Projection> projections = new HashMap<>();
+    boolean[] dynamic = new boolean[1];
+    scan(template, (start, end, property) -> {
+      if (property != null) {
+        properties.add(property);
+        projections.computeIfAbsent(property, p -> new Projection())
+            .add(memberPath(template, end));
+      } else {
+        dynamic[0] = true;
+      }
+    });
+    return new ItemReferences(properties, dynamic[0], projections);
+  }
+
+  /**
+   * Replaces the accesses to item properties (<code>item.name</code>) in the expressions of a
+   * template. The function returns the replacement for each property name, or {@code null} if the
+   * accesses to that property are kept.
+   */
+  static String rewrite(String template, Function<String, String> replacements) {
+    StringBuilder sb = new StringBuilder(template.length());
+    int[] from = new int[1];
+    scan(template, (start, end, property) -> {
+      String replacement = property != null ? replacements.apply(property) : null;
+      if (replacement != null) {
+        sb.append(template, from[0], start).append(replacement);
+        from[0] = end;
+      }
+    });
+    return from[0] == 0 ? template : sb.append(template, from[0], template.length()).toString();
+  }
+
+  /**
+   * Finds the references to the item in the expressions of a template. The scanner keeps a stack
+   * of contexts, so that the contents of string literals, and the text of template literals
+   * (including escaped <code>\${</code>), are not taken as expressions.
+   */
+  private static void scan(String template, ReferenceVisitor visitor) {
+    // stack of contexts, starting at the text of the template
+    byte[] stack = new byte[16];
+    int depth = 0;
+    for (int i = 0, n = template.length(); i < n; i++) {
+      char c = template.charAt(i);
+      if (stack[depth] == TEXT) {
+        if (c == '\\') {
+          i++;
+        } else if (c == '$' && i + 1 < n && template.charAt(i + 1) == '{') {
+          stack = push(stack, ++depth, EXPRESSION);
+          i++;
+        } else if (c == '`' && depth > 0) {
+          depth--;
+        }
+      } else if (c == '"' || c == '\'') {
+        i = stringEnd(template, i);
+      } else if (c == '`') {
+        stack = push(stack, ++depth, TEXT);
+      } else if (c == '{') {
+        stack = push(stack, ++depth, EXPRESSION);
+      } else if (c == '}') {
+        depth--;
+      } else if (Character.isJavaIdentifierStart(c)
+          && (i == 0 || !isIdentifierPart(template.charAt(i - 1)))) {
+        int end = identifierEnd(template, i);
+        if (template.startsWith(ITEM, i) && end == i + ITEM.length()
+            && (i == 0 || template.charAt(i - 1) != '.')) {
+          int memberStart = memberStart(template, end);
+          if (memberStart > 0) {
+            int memberEnd = identifierEnd(template, memberStart);
+            visitor.visit(i, memberEnd, template.substring(memberStart, memberEnd));
+            end = memberEnd;
+          } else {
+            visitor.visit(i, end, null);
+          }
+        }
+        i = end - 1;
+      }
+    }
+  }
+
+  private static byte[] push(byte[] stack, int depth, byte context) {
+    if (depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+    }
+    stack[depth] = context;
+    return stack;
+  }
+
+  /** Returns the index of the quote that closes the string literal starting at {@code start}. */
+  private static int stringEnd(String s, int start) {
+    char quote = s.charAt(start);
+    int i = start + 1;
+    while (i < s.length() && s.charAt(i) != quote) {
+      i += s.charAt(i) == '\\' ? 2 : 1;
+    }
+    return i;
+  }
+
+  /**
+   * Returns the names of the members accessed after {@code start} (as in {@code .a.b}). If the last
+   * member is called as a method, it is not included, since the object is used as a whole.
+   */
+  private static List<String> memberPath(String s, int start) {
+    List<String> path = new ArrayList<>();
+    int i = start;
+    int memberStart;
+    while ((memberStart = memberStart(s, i)) > 0) {
+      i = identifierEnd(s, memberStart);
+      path.add(s.substring(memberStart, i));
+    }
+    if (!path.isEmpty() && (s.startsWith("(", i) || s.startsWith("?.(", i))) {
+      path.remove(path.size() - 1);
+    }
+    return path;
+  }
+
+  private static boolean isIdentifierPart(char c) {
+    return Character.isJavaIdentifierPart(c);
+  }
+
+  private static int identifierEnd(String s, int start) {
+    int end = start + 1;
+    while (end < s.length() && isIdentifierPart(s.charAt(end))) {
+      end++;
+    }
+    return end;
+  }
+
+  /**
+   * Returns the start of the name of the member accessed at {@code start} (as {@code .name} or
+   * {@code ?.name}), or {@code -1} if there is no such access.
+   */
+  private static int memberStart(String s, int start) {
+    int i = start;
+    if (s.startsWith("?.", i)) {
+      i += 2;
+    } else if (s.startsWith(".", i)) {
+      i += 1;
+    } else {
+      return -1;
+    }
+    if (i < s.length() && Character.isJavaIdentifierStart(s.charAt(i))) {
+      return i;
+    }
+    return -1;
+  }
+
+}
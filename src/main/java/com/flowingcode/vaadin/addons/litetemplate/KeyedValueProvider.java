@@ -0,0 +1,50 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.function.ValueProvider;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A {@code ValueProvider} that is identified by a key. The bindings of a template whose value
+ * providers have equal keys share a single generated property.
+ *
+ * @see LiteRenderer#keyed(Object, ValueProvider)
+ */
+@SuppressWarnings("serial")
+@RequiredArgsConstructor
+final class KeyedValueProvider<SOURCE, T> implements ValueProvider<SOURCE, T> {
+
+  @Getter
+  @NonNull
+  private final Object key;
+
+  @Getter
+  @NonNull
+  private final ValueProvider<SOURCE, T> valueProvider;
+
+  @Override
+  public T apply(SOURCE source) {
+    return valueProvider.apply(source);
+  }
+
+}
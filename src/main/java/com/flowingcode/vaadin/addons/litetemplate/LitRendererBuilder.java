@@ -19,29 +19,39 @@
  */
 package com.flowingcode.vaadin.addons.litetemplate;
 
-import com.flowingcode.vaadin.jsonmigration.JsonMigration;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Attribute;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.AttributeBinding;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.AttributeLiteral;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Close;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Listener;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Open;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Property;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.PropertyBinding;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.PropertyLiteral;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Text;
 import com.vaadin.flow.component.ClickEvent;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentUtil;
 import com.vaadin.flow.component.button.Button;
-import com.vaadin.flow.data.renderer.LitRenderer;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.function.SerializableBiConsumer;
 import com.vaadin.flow.function.ValueProvider;
-import com.vaadin.flow.server.Version;
 import elemental.json.JsonArray;
 import elemental.json.JsonBoolean;
 import elemental.json.JsonNumber;
 import elemental.json.JsonString;
 import elemental.json.JsonValue;
-import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Consumer;
 import lombok.NonNull;
-import lombok.SneakyThrows;
 
 final class LitRendererBuilder<SOURCE> {
 
@@ -49,36 +59,74 @@ final class LitRendererBuilder<SOURCE> {
 
   private final List<Component> components;
 
-  private final StringBuilder sb = new StringBuilder();
-  private final Map<String, ValueProvider<SOURCE, ?>> properties = new HashMap<>();
-  private final Map<String, SerializableBiConsumer<SOURCE, JsonArray>> functions = new HashMap<>();
+  private final FragmentCache<SOURCE> cache;
+
+  private final boolean minified;
+
+  private final List<TemplateToken> tokens = new ArrayList<>();
+  private final List<ValueProvider<SOURCE, ?>> properties = new ArrayList<>();
+  private final List<SerializableBiConsumer<SOURCE, JsonArray>> functions = new ArrayList<>();
+
+  /** The slots of the value providers that were added to the plan, by identity. */
+  private final Map<ValueProvider<SOURCE, ?>, Integer> providerSlots = new IdentityHashMap<>();
+
+  /** The slots of the keyed value providers that were added to the plan, by key. */
+  private final Map<Object, Integer> keySlots = new HashMap<>();
+
+  /**
+   * Compiled subtree of the template. The binding slots of the element's own tokens are relative to
+   * the fragment's properties and functions. Each child is either a {@code Text} token or a
+   * {@code Fragment}. The state is the part of the element that is not tracked by the version of
+   * its {@link LiteRendererData} (see {@link #stateOf(Element, Component, LiteRendererData)}).
+   */
+  private record Fragment<SOURCE>(
+      Component component,
+      long version,
+      boolean interpolationEnabled,
+      List<Object> state,
+      List<TemplateToken> tokens,
+      List<ValueProvider<SOURCE, ?>> properties,
+      List<SerializableBiConsumer<SOURCE, JsonArray>> functions,
+      List<Object> children) {
+  }
 
+  /**
+   * Fragments of a previous compilation, which are reused for the subtrees that were not modified
+   * since.
+   */
+  static final class FragmentCache<SOURCE> {
+    private Map<Component, Fragment<SOURCE>> fragments = Collections.emptyMap();
+  }
 
-  private LitRendererBuilder(List<Component> components) {
+  private LitRendererBuilder(List<Component> components, FragmentCache<SOURCE> cache,
+      boolean minified) {
     this.components = components;
+    this.cache = cache;
+    this.minified = minified;
+  }
+
+  public static <SOURCE> TemplatePlan<SOURCE> compile(@NonNull List<Component> components,
+      boolean minified) {
+    return new LitRendererBuilder<SOURCE>(components, null, minified).compile();
   }
 
-  public static <SOURCE> LitRenderer<SOURCE> build(
-      @NonNull List<Component> components,
-      @NonNull Map<String, ValueProvider<SOURCE, ?>> properties,
-      @NonNull Consumer<String> setTemplateExpression) {
-    return new LitRendererBuilder<SOURCE>(components).build(properties, setTemplateExpression);
+  public static <SOURCE> TemplatePlan<SOURCE> compile(@NonNull List<Component> components,
+      @NonNull FragmentCache<SOURCE> cache, boolean minified) {
+    return new LitRendererBuilder<>(components, cache, minified).compile();
   }
 
   private LiteRendererData<SOURCE> getData(Component component) {
     return LiteRendererData.getInstance(component);
   }
 
-  private LitRenderer<SOURCE> build(
-      Map<String, ValueProvider<SOURCE, ?>> rendererProperties,
-      Consumer<String> setTemplateExpression) {
+  private TemplatePlan<SOURCE> compile() {
 
-    if (!sb.isEmpty()) {
+    if (!tokens.isEmpty()) {
       throw new IllegalStateException();
     }
 
-    properties.putAll(rendererProperties);
-
+    var previous = cache != null ? cache.fragments : Map.<Component, Fragment<SOURCE>>of();
+    Map<Component, Fragment<SOURCE>> fragments = new IdentityHashMap<>();
     for (Component component : components) {
       Element element;
       if (component instanceof LiteComponent<?> lite) {
@@ -87,221 +135,319 @@ final class LitRendererBuilder<SOURCE> {
         element = component.getElement();
       }
 
-      writeElement(element, true, "\n  ");
+      if (element.isTextNode()) {
+        tokens.add(new Text(element.getText(), true));
+      } else {
+        var fragment = visitElement(element, true, previous);
+        fragments.put(fragment.component(), fragment);
+        append(fragment);
+      }
     }
 
-    String templateExpression = sb.toString() + "\n";
-    var renderer = LitRenderer.<SOURCE>of(templateExpression);
-    functions.forEach((n, v) -> withFunction(renderer, n, v));
-    properties.forEach((n, v) -> renderer.withProperty(n, v));
+    if (cache != null) {
+      cache.fragments = fragments;
+    }
 
-    setTemplateExpression.accept(templateExpression);
-    return renderer;
+    var fingerprint = new TemplateFingerprint(tokens, minified);
+    var layout = TemplateCache.getLayout(fingerprint, TemplateWriter::write);
+    return new TemplatePlan<>(layout, properties, functions);
   }
 
-  @SneakyThrows
-  private LitRenderer<SOURCE> withFunction(LitRenderer<SOURCE> renderer, String name,
-      SerializableBiConsumer<SOURCE, JsonArray> handler) {
-    SerializableBiConsumer<SOURCE, ?> c = handler;
-    if (Version.getMajorVersion() >= 25) {
-      c = (source, array) -> handler.accept(source,
-          (JsonArray) JsonMigration.convertToJsonValue(array));
+  /** Appends the tokens of a fragment and its children, assigning absolute binding slots. */
+  private void append(Fragment<SOURCE> root) {
+    Deque<Iterator<Object>> stack = new ArrayDeque<>();
+    appendElement(root);
+    stack.push(root.children().iterator());
+    while (!stack.isEmpty()) {
+      var children = stack.peek();
+      if (!children.hasNext()) {
+        stack.pop();
+        tokens.add(Close.INSTANCE);
+        continue;
+      }
+
+      Object child = children.next();
+      if (child instanceof TemplateToken text) {
+        tokens.add(text);
+      } else {
+        @SuppressWarnings("unchecked")
+        var fragment = (Fragment<SOURCE>) child;
+        appendElement(fragment);
+        stack.push(fragment.children().iterator());
+      }
     }
-    return (LitRenderer<SOURCE>) LitRenderer_withFunction.invokeExact(renderer, name, c);
   }
 
-  private static final MethodHandle LitRenderer_withFunction = lookup_withFunction();
-
-  @SneakyThrows
-  private static MethodHandle lookup_withFunction() {
-    MethodHandles.Lookup lookup = MethodHandles.lookup();
-    MethodType methodType = MethodType.methodType(
-        LitRenderer.class,
-        String.class,
-        SerializableBiConsumer.class
-    );
-
-    return lookup.findVirtual(LitRenderer.class, "withFunction", methodType);
+  private void appendElement(Fragment<SOURCE> fragment) {
+    int[] propertySlots = new int[fragment.properties().size()];
+    for (int i = 0; i < propertySlots.length; i++) {
+      propertySlots[i] = propertySlot(fragment.properties().get(i));
+    }
+    int functionOffset = functions.size();
+    functions.addAll(fragment.functions());
+
+    for (TemplateToken token : fragment.tokens()) {
+      if (token instanceof AttributeBinding binding) {
+        token = new AttributeBinding(binding.name(), propertySlots[binding.slot()]);
+      } else if (token instanceof PropertyBinding binding) {
+        token = new PropertyBinding(binding.name(), propertySlots[binding.slot()]);
+      } else if (token instanceof Listener listener) {
+        token = new Listener(listener.eventType(), listener.arguments(),
+            listener.slot() + functionOffset);
+      }
+      tokens.add(token);
+    }
   }
 
-  private String addFunction(SerializableBiConsumer<SOURCE, JsonArray> handler) {
-    String name = "function" + functions.size();
-    functions.put(name, handler);
-    return name;
+  /**
+   * Returns the absolute slot of a value provider. Bindings to the same value provider instance, or
+   * to keyed value providers with equal keys, share the same slot.
+   */
+  private int propertySlot(ValueProvider<SOURCE, ?> valueProvider) {
+    return valueProvider instanceof KeyedValueProvider<?, ?> keyed
+        ? keySlots.computeIfAbsent(keyed.getKey(), key -> addProperty(valueProvider))
+        : providerSlots.computeIfAbsent(valueProvider, this::addProperty);
   }
 
-  private String addProperty(ValueProvider<SOURCE, ?> valueProvider) {
-    String name = "property" + properties.size();
-    properties.put(name, valueProvider);
-    return name;
+  private int addProperty(ValueProvider<SOURCE, ?> valueProvider) {
+    properties.add(valueProvider);
+    return properties.size() - 1;
   }
 
-
-  private void writeElement(Element e, boolean interpolationEnabled, String padding) {
-    if (e.isTextNode()) {
-      sb.append(padding);
-      String text = e.getText();
-      if (interpolationEnabled || !text.contains("${") && !text.contains("`")) {
-        sb.append(encodeReplaceableCharacterData(text));
+  /**
+   * Compiles an element and its descendants, reusing the fragments of a previous compilation where
+   * possible. The tree is traversed with an explicit stack, so that deep templates do not overflow
+   * the call stack.
+   */
+  private Fragment<SOURCE> visitElement(Element element, boolean interpolationEnabled,
+      Map<Component, Fragment<SOURCE>> previous) {
+    Deque<ElementVisitor> stack = new ArrayDeque<>();
+    enterElement(element, interpolationEnabled, previous, stack);
+    Fragment<SOURCE> fragment = null;
+    while (!stack.isEmpty()) {
+      var visitor = stack.peek();
+      if (visitor.childIndex < visitor.element.getChildCount()) {
+        Element child = visitor.element.getChild(visitor.childIndex++);
+        if (child.isTextNode()) {
+          visitor.children.add(new Text(child.getText(), visitor.interpolationEnabled));
+        } else {
+          enterElement(child, visitor.interpolationEnabled, visitor.previousChildren, stack);
+        }
       } else {
-        sb.append(wrapAndEscapeTemplateCharacters(text));
-      }
-    } else {
-      var data = getData(e.getComponent().get());
-      if (data.isInterpolationEnabled().filter(value -> value != interpolationEnabled)
-          .isPresent()) {
-        writeElement(e, !interpolationEnabled, padding);
-        return;
+        stack.pop();
+        fragment = visitor.toFragment();
+        if (!stack.isEmpty()) {
+          stack.peek().children.add(fragment);
+        }
       }
+    }
+    return fragment;
+  }
 
-      sb.append(padding);
-      sb.append('<').append(e.getTag());
+  /**
+   * Visits the element's own attributes, properties and listeners, and pushes it into the stack.
+   * The tokens and bindings of the fragment of a previous compilation are reused instead, if
+   * neither the element nor its {@link LiteRendererData} were modified since.
+   */
+  private void enterElement(Element e, boolean interpolationEnabled,
+      Map<Component, Fragment<SOURCE>> previous, Deque<ElementVisitor> stack) {
+    var component = e.getComponent().get();
+    var data = getData(component);
+    interpolationEnabled = data.isInterpolationEnabled().orElse(interpolationEnabled);
+
+    // the attributes and properties that are bound through the renderer are not rendered
+    data.getAttributes().keySet().forEach(e::removeAttribute);
+    data.getProperties().keySet().forEach(e::removeProperty);
+
+    var state = stateOf(e, component, data);
+    var visitor = new ElementVisitor(e, component, data, interpolationEnabled, state);
+
+    var fragment = previous.get(component);
+    if (fragment != null && fragment.version() == data.getVersion()
+        && fragment.interpolationEnabled() == interpolationEnabled
+        && fragment.state().equals(state)) {
+      visitor.reused = fragment;
+    } else {
+      visitor.tokens.add(new Open(e.getTag()));
 
       data.getAttributes().forEach((name, valueProvider) -> {
-        e.removeAttribute(name);
-        writeAttribute(name, valueProvider);
+        if (valueProvider instanceof ConstantValueProvider<?, ?> constant
+            && constant.isInlinable()) {
+          visitor.tokens.add(constant.getValue() instanceof String value
+              ? new Attribute(name, value, false)
+              : new AttributeLiteral(name, constant.toLiteral()));
+        } else {
+          visitor.tokens.add(new AttributeBinding(name, visitor.addProperty(valueProvider)));
+        }
       });
 
-      e.getAttributeNames().forEach(name -> writeAttribute(e, name, interpolationEnabled));
+      e.getAttributeNames().forEach(name -> visitor.visitAttribute(e, name));
 
       data.getProperties().forEach((name, valueProvider) -> {
-        e.removeProperty(name);
-        writeProperty(name, valueProvider);
+        if (valueProvider instanceof ConstantValueProvider<?, ?> constant
+            && constant.isInlinable()) {
+          visitor.tokens.add(constant.getValue() instanceof String value
+              ? new Property(name, value, false)
+              : new PropertyLiteral(name, constant.toLiteral()));
+        } else {
+          visitor.tokens.add(new PropertyBinding(name, visitor.addProperty(valueProvider)));
+        }
       });
-      e.getPropertyNames().forEach(name -> writeProperty(e, name, interpolationEnabled));
-
-      writeEventListeners(e);
+      e.getPropertyNames().forEach(name -> visitor.visitProperty(e, name));
 
-      sb.append('>');
+      visitor.visitEventListeners(e);
+    }
 
-      if (e.getChildCount() != 0) {
-        String nested = padding + "  ";
-        for (int i = 0, n = e.getChildCount(); i < n; i++) {
-          writeElement(e.getChild(i), interpolationEnabled, nested);
+    if (fragment != null) {
+      for (Object child : fragment.children()) {
+        if (child instanceof Fragment<?> f) {
+          @SuppressWarnings("unchecked")
+          var childFragment = (Fragment<SOURCE>) f;
+          visitor.previousChildren.put(childFragment.component(), childFragment);
         }
-        sb.append(padding);
       }
-      sb.append("</").append(e.getTag()).append('>');
     }
+
+    stack.push(visitor);
   }
 
-  private void writeAttribute(String name, ValueProvider<SOURCE, ?> valueProvider) {
-    sb.append('\s').append(name);
-    sb.append("=${item.").append(addProperty(valueProvider)).append('}');
+  /**
+   * Returns the state of an element that is not tracked by the version of its
+   * {@link LiteRendererData}: its tag, attributes and properties, the text and components of its
+   * children, and the click listeners of a button.
+   */
+  private static List<Object> stateOf(Element e, Component component,
+      LiteRendererData<?> data) {
+    Map<String, Object> attributes = new HashMap<>();
+    e.getAttributeNames().forEach(name -> attributes.put(name, e.getAttribute(name)));
+    Map<String, Object> properties = new HashMap<>();
+    e.getPropertyNames().forEach(name -> properties.put(name, e.getPropertyRaw(name)));
+
+    List<Object> children = new ArrayList<>(e.getChildCount());
+    for (int i = 0; i < e.getChildCount(); i++) {
+      Element child = e.getChild(i);
+      children.add(child.isTextNode() ? child.getText() : child.getComponent().orElse(null));
+    }
+
+    Object listeners = component instanceof Button && !data.hasListener("click")
+        ? ComponentUtil.getListeners(component, ClickEvent.class)
+        : null;
+    return Arrays.asList(e.getTag(), attributes, properties, children, listeners);
   }
 
-  private void writeAttribute(Element element, String name, boolean interpolationEnabled) {
-    sb.append('\s').append(name);
-    String value = element.getAttribute(name);
-    if (!value.isEmpty()) {
-      sb.append('=');
-      if (interpolationEnabled) {
-        sb.append(encodeAttributeValueSpecification(value));
-      } else {
-        sb.append(wrapAndEscapeTemplateCharacters(value));
+  /**
+   * Returns whether two lists of children contain the same fragments, and equal text tokens.
+   */
+  private static boolean isSameChildren(List<Object> previous, List<Object> children) {
+    if (previous.size() != children.size()) {
+      return false;
+    }
+    for (int i = 0; i < children.size(); i++) {
+      Object child = children.get(i);
+      if (child != previous.get(i)
+          && !(child instanceof TemplateToken && child.equals(previous.get(i)))) {
+        return false;
       }
     }
+    return true;
   }
 
-  private void writeProperty(Element element, String name, boolean interpolationEnabled) {
+  /** Collects the tokens and bindings of a single element. */
+  private final class ElementVisitor {
+
+    private final Element element;
+    private final Component component;
+    private final LiteRendererData<SOURCE> data;
+    private final boolean interpolationEnabled;
+    private final List<Object> state;
+
+    /** The fragment of a previous compilation whose own tokens and bindings are reused. */
+    private Fragment<SOURCE> reused;
+
+    private final List<TemplateToken> tokens = new ArrayList<>();
+    private final List<ValueProvider<SOURCE, ?>> properties = new ArrayList<>();
+    private final List<SerializableBiConsumer<SOURCE, JsonArray>> functions = new ArrayList<>();
+
+    private final Map<Component, Fragment<SOURCE>> previousChildren = new IdentityHashMap<>();
+    private final List<Object> children = new ArrayList<>();
+    private int childIndex;
+
+    ElementVisitor(Element element, Component component, LiteRendererData<SOURCE> data,
+        boolean interpolationEnabled, List<Object> state) {
+      this.element = element;
+      this.component = component;
+      this.data = data;
+      this.interpolationEnabled = interpolationEnabled;
+      this.state = state;
+    }
 
-    boolean wrap = true;
-    Object value = element.getPropertyRaw(name);
-    if (value instanceof String val) {
-      if (interpolationEnabled) {
-        value = encodePropertyValue(val, "${`", "`}");
-      } else {
-        value = wrapAndEscapeTemplateCharacters(val);
+    /**
+     * Returns the fragment of the element. The fragment of the previous compilation is returned if
+     * it was reused, and its children are the same.
+     */
+    private Fragment<SOURCE> toFragment() {
+      if (reused == null) {
+        return new Fragment<>(component, data.getVersion(), interpolationEnabled, state,
+            List.copyOf(tokens), List.copyOf(properties), List.copyOf(functions), children);
       }
-      wrap = false;
-    } else if (value instanceof JsonString val) {
-      value = wrapAndEscapeTemplateCharacters(val.asString());
-      wrap = false;
-    } else if (value instanceof Double || value instanceof Boolean) {
-      value = String.valueOf(value);
-    } else if (value instanceof JsonBoolean val) {
-      value = Boolean.toString(val.asBoolean());
-    } else if (value instanceof JsonNumber val) {
-      value = Double.toString(val.asNumber());
-    } else if (value instanceof JsonValue val) {
-      value = val.toJson();
-    } else {
-      throw new IllegalArgumentException();
+      if (isSameChildren(reused.children(), children)) {
+        return reused;
+      }
+      return new Fragment<>(component, reused.version(), interpolationEnabled, state,
+          reused.tokens(), reused.properties(), reused.functions(), children);
     }
 
-    sb.append(" .").append(name).append('=');
-    if (wrap) {
-      sb.append("${").append(value).append('}');
-    } else {
-      sb.append(value);
+    private int addFunction(SerializableBiConsumer<SOURCE, JsonArray> handler) {
+      functions.add(handler);
+      return functions.size() - 1;
     }
-  }
-
-  private void writeProperty(String name, ValueProvider<SOURCE, ?> valueProvider) {
-    sb.append(" .").append(name);
-    sb.append("=${item.").append(addProperty(valueProvider)).append('}');
-  }
-
-  private void writeEventListeners(Element e) {
 
-    Component c = e.getComponent().get();
-
-    if (c instanceof Button && !getData(c).hasListener("click")) {
-      getData(c).addListener("click",
-          new LiteListener<>(item -> LiteRenderer.fireEvent(item, new ClickEvent<>(c))));
+    private int addProperty(ValueProvider<SOURCE, ?> valueProvider) {
+      properties.add(valueProvider);
+      return properties.size() - 1;
     }
 
-    getData(c).getListeners().forEach((eventType, listener) -> {
-      var handler = listener.getHandler();
-      String functionName = addFunction((item, args) -> handler.accept(item, args));
+    private void visitAttribute(Element element, String name) {
+      tokens.add(new Attribute(name, element.getAttribute(name), interpolationEnabled));
+    }
 
-      String actualArguments;
-      String formalArguments;
-      if (listener.hasArguments()) {
-        actualArguments = listener.getArguments();
-        formalArguments = "event";
+    private void visitProperty(Element element, String name) {
+      Object value = element.getPropertyRaw(name);
+      if (value instanceof String val) {
+        tokens.add(new Property(name, val, interpolationEnabled));
+      } else if (value instanceof JsonString val) {
+        tokens.add(new Property(name, val.asString(), false));
+      } else if (value instanceof Double || value instanceof Boolean) {
+        tokens.add(new PropertyLiteral(name, String.valueOf(value)));
+      } else if (value instanceof JsonBoolean val) {
+        tokens.add(new PropertyLiteral(name, Boolean.toString(val.asBoolean())));
+      } else if (value instanceof JsonNumber val) {
+        tokens.add(new PropertyLiteral(name, Double.toString(val.asNumber())));
+      } else if (value instanceof JsonValue val) {
+        tokens.add(new PropertyLiteral(name, val.toJson()));
       } else {
-        actualArguments = "";
-        formalArguments = "";
+        throw new IllegalArgumentException();
       }
-
-      sb.append(String.format(" @%s=${(%s)=>%s(%s)}",
-          eventType,
-          formalArguments,
-          functionName,
-          actualArguments));
-    });
-  }
-
-  private static String encodeAttributeValueSpecification(String value) {
-    if (value.contains("${")) {
-      return encodePropertyValue(value, "\"", "\"");
-    }
-    value = value.replace("&", "&amp;");
-    if (value.indexOf('"') >= 0 && value.indexOf('\'') < 0) {
-      return '\'' + value + '\'';
-    } else {
-      return '"' + value.replace("\"", "&quot;") + '"';
     }
-  }
 
-  private static String encodeReplaceableCharacterData(String value) {
-    if (value.startsWith("\\${")) {
-      value = value.substring(1);
-    } else if (value.startsWith("${")) {
-      return value;
-    }
-    return value.replace("&", "&amp;").replace("<", "&lt;");
-  }
+    private void visitEventListeners(Element e) {
 
-  private static String wrapAndEscapeTemplateCharacters(String value) {
-    return "${`" + value.replace("`", "\\`").replace("$", "\\$") + "`}";
-  }
+      Component c = e.getComponent().get();
 
+      if (c instanceof Button && !getData(c).hasListener("click")) {
+        // the handler captures the click listeners, not the button, so that the compiled template
+        // does not retain the components
+        List<?> listeners = List.copyOf(ComponentUtil.getListeners(c, ClickEvent.class));
+        int function = addFunction((item, args) -> LiteRenderer.fireClickEvent(item, listeners));
+        tokens.add(new Listener("click", null, function));
+      }
 
-  private static String encodePropertyValue(String value, String prefix, String suffix) {
-    return PropertyEncoder.encode(value, prefix, suffix)
-        .orElseGet(() -> wrapAndEscapeTemplateCharacters(value));
+      getData(c).getListeners().forEach((eventType, listener) -> {
+        var handler = listener.getHandler();
+        int function = addFunction((item, args) -> handler.accept(item, args));
+        tokens.add(new Listener(eventType, listener.getArguments(), function));
+      });
+    }
   }
 
 }
@@ -19,6 +19,10 @@
  */
 package com.flowingcode.vaadin.addons.litetemplate;
 
+import com.flowingcode.vaadin.addons.litetemplate.PrimitiveValueProvider.OfBoolean;
+import com.flowingcode.vaadin.addons.litetemplate.PrimitiveValueProvider.OfDouble;
+import com.flowingcode.vaadin.addons.litetemplate.PrimitiveValueProvider.OfInt;
+import com.flowingcode.vaadin.addons.litetemplate.PrimitiveValueProvider.OfLong;
 import com.flowingcode.vaadin.jsonmigration.JsonMigration;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentEventBus;
@@ -263,6 +267,66 @@ public final class LiteComponent<COMPONENT extends Component> extends Component
     return this;
   }
 
+  /**
+   * Sets a dynamic {@code int} element property, as in
+   * {@link #withElementProperty(String, ValueProvider)}. The value is converted to JSON without
+   * being boxed.
+   *
+   * @param name the name of the property being bound. Must not be {@code null}.
+   * @param provider a function that supplies the value of the property from the input object. Must
+   *        not be {@code null}.
+   * @return this instance for method chaining
+   */
+  public <SOURCE> LiteComponent<COMPONENT> withElementPropertyInt(String name,
+      OfInt<SOURCE> provider) {
+    return withElementProperty(name, PrimitiveValueProvider.ofInt(provider));
+  }
+
+  /**
+   * Sets a dynamic {@code long} element property, as in
+   * {@link #withElementProperty(String, ValueProvider)}. The value is converted to JSON without
+   * being boxed.
+   *
+   * @param name the name of the property being bound. Must not be {@code null}.
+   * @param provider a function that supplies the value of the property from the input object. Must
+   *        not be {@code null}.
+   * @return this instance for method chaining
+   */
+  public <SOURCE> LiteComponent<COMPONENT> withElementPropertyLong(String name,
+      OfLong<SOURCE> provider) {
+    return withElementProperty(name, PrimitiveValueProvider.ofLong(provider));
+  }
+
+  /**
+   * Sets a dynamic {@code double} element property, as in
+   * {@link #withElementProperty(String, ValueProvider)}. The value is converted to JSON without
+   * being boxed.
+   *
+   * @param name the name of the property being bound. Must not be {@code null}.
+   * @param provider a function that supplies the value of the property from the input object. Must
+   *        not be {@code null}.
+   * @return this instance for method chaining
+   */
+  public <SOURCE> LiteComponent<COMPONENT> withElementPropertyDouble(String name,
+      OfDouble<SOURCE> provider) {
+    return withElementProperty(name, PrimitiveValueProvider.ofDouble(provider));
+  }
+
+  /**
+   * Sets a dynamic {@code boolean} element property, as in
+   * {@link #withElementProperty(String, ValueProvider)}. The value is converted to JSON without
+   * being boxed.
+   *
+   * @param name the name of the property being bound. Must not be {@code null}.
+   * @param provider a function that supplies the value of the property from the input object. Must
+   *        not be {@code null}.
+   * @return this instance for method chaining
+   */
+  public <SOURCE> LiteComponent<COMPONENT> withElementPropertyBoolean(String name,
+      OfBoolean<SOURCE> provider) {
+    return withElementProperty(name, PrimitiveValueProvider.ofBoolean(provider));
+  }
+
   /**
    * Registers an event listener for a DOM event on one of the child elements within the template
    * component. Each DOM event can only be registered once per component.
@@ -19,9 +19,17 @@
  */
 package com.flowingcode.vaadin.addons.litetemplate;
 
+import com.flowingcode.vaadin.addons.litetemplate.PrimitiveValueProvider.OfBoolean;
+import com.flowingcode.vaadin.addons.litetemplate.PrimitiveValueProvider.OfDouble;
+import com.flowingcode.vaadin.addons.litetemplate.PrimitiveValueProvider.OfInt;
+import com.flowingcode.vaadin.addons.litetemplate.PrimitiveValueProvider.OfLong;
+import com.flowingcode.vaadin.addons.litetemplate.TemplatePlan.ComputedProperty;
+import com.flowingcode.vaadin.addons.litetemplate.TemplatePlan.Rendered;
+import com.vaadin.flow.component.ClickEvent;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentEvent;
-import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.data.provider.DataKeyMapper;
 import com.vaadin.flow.data.renderer.LitRenderer;
 import com.vaadin.flow.data.renderer.Renderer;
@@ -29,22 +37,26 @@ import com.vaadin.flow.data.renderer.Rendering;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.function.SerializableBiConsumer;
 import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableFunction;
 import com.vaadin.flow.function.ValueProvider;
 import elemental.json.JsonArray;
-import java.io.Serializable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
-import lombok.AccessLevel;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import lombok.Setter;
 
 /**
  * {@code Renderer} that uses a component instance as template. Intended as an alternative of
@@ -55,55 +67,353 @@ import lombok.Setter;
  * @param <SOURCE> the type of the model object used in the template
  *
  * @see #of(Component, Component...)
+ * @see #freeze()
  */
 @SuppressWarnings("serial")
 public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
 
-  private final List<Component> components;
+  private transient List<Component> components;
 
-  @Setter(AccessLevel.PRIVATE)
-  private String templateExpression;
+  /** Identity set of the template components, built when needed. */
+  private transient Set<Component> roots;
 
-  private LitRenderer<SOURCE> renderer;
+  private boolean autoFreeze;
+
+  private boolean minified;
+
+  private boolean strict;
+
+  private boolean shortNames;
+
+  private Class<SOURCE> beanType;
+
+  private transient TemplatePlan<SOURCE> plan;
+
+  private transient Rendered<SOURCE> renderer;
+
+  private transient LitRendererBuilder.FragmentCache<SOURCE> fragments;
+
+  private transient volatile Frozen<SOURCE> frozen;
 
   private final Map<String, ValueProvider<SOURCE, ?>> properties = new HashMap<>();
 
+  private final Map<String, ComputedProperty> computedProperties = new HashMap<>();
+
+  private final Map<String, SerializableFunction<SOURCE, ?>> contexts = new HashMap<>();
+
+  /**
+   * The renderings that are updated by {@link #updateRenderings()}. They are weakly referenced, so
+   * that the renderer does not retain the components where it was rendered: a rendering is
+   * retained by its container for as long as it is in use.
+   */
+  private transient List<WeakReference<LiteRendering<SOURCE>>> renderings = new ArrayList<>();
+
+  /**
+   * Compiled state of a frozen renderer. The {@code LitRenderer} is {@code null} until the first
+   * render after deserialization.
+   */
+  private record Frozen<SOURCE>(TemplatePlan<SOURCE> plan, Rendered<SOURCE> renderer) {
+  }
+
   private LiteRenderer(List<Component> components) {
     this.components = components;
   }
 
+  private TemplatePlan<SOURCE> compile() {
+    return LitRendererBuilder.compile(components, minified);
+  }
+
   private void updateRenderer() {
-    renderer = LitRendererBuilder.build(components,
-        Collections.unmodifiableMap(properties),
-        this::setTemplateExpression);
+    if (plan == null) {
+      if (fragments == null) {
+        fragments = new LitRendererBuilder.FragmentCache<>();
+      }
+      plan = LitRendererBuilder.compile(components, fragments, minified);
+    }
+    renderer = createRenderer(plan, Collections.unmodifiableMap(properties));
+  }
+
+  private Rendered<SOURCE> createRenderer(TemplatePlan<SOURCE> plan,
+      Map<String, ValueProvider<SOURCE, ?>> properties) {
+    return plan.createRenderer(properties, Map.copyOf(computedProperties), beanType, strict,
+        shortNames);
+  }
+
+  private void invalidate() {
+    plan = null;
+    renderer = null;
+  }
+
+  private void assertNotFrozen() {
+    if (frozen != null) {
+      throw new IllegalStateException("The renderer is frozen");
+    }
   }
 
-  /** Returns a string representation of the object. */
+  /**
+   * Decorates the rendering of a {@code LitRenderer}, so that the data of each item is generated
+   * within its context, and in batches if needed.
+   */
+  private Rendering<SOURCE> decorate(TemplatePlan<SOURCE> plan, Rendering<SOURCE> rendering,
+      Element container) {
+    if (!contexts.isEmpty()) {
+      rendering = new ContextRendering<>(rendering, contexts);
+    }
+    if (isBatched(plan)) {
+      rendering = new BatchRendering<>(rendering, container);
+    }
+    return rendering;
+  }
+
+  /**
+   * Returns whether any property of the renderer is provided by a {@code BatchValueProvider}. The
+   * registered value providers are checked, thus a projected property is still batched.
+   */
+  private boolean isBatched(TemplatePlan<SOURCE> plan) {
+    return Stream.concat(properties.values().stream(), plan.getProperties().values().stream())
+        .anyMatch(BatchedValueProvider::isBatched);
+  }
+
+  /**
+   * Returns the compiled renderer of a frozen renderer, or of the current template. The renderer of
+   * a frozen renderer is created when it is needed after deserialization.
+   */
+  private Rendered<SOURCE> getRenderer() {
+    var frozen = this.frozen;
+    if (frozen != null) {
+      if (frozen.renderer() == null) {
+        var plan = frozen.plan();
+        frozen = new Frozen<>(plan, createRenderer(plan, Map.copyOf(properties)));
+        this.frozen = frozen;
+      }
+      return frozen.renderer();
+    }
+    if (renderer == null) {
+      updateRenderer();
+    }
+    return renderer;
+  }
+
+  /**
+   * Returns the template expression that is sent to the client, i.e. after the short property
+   * names, the inlined constants and the computed properties have been written into it.
+   */
   @Override
   public String toString() {
-    return Optional.ofNullable(templateExpression).orElseGet(() -> {
-      try {
-        updateRenderer();
-        return templateExpression;
-      } finally {
-        templateExpression = null;
-        renderer = null;
-      }
-    });
+    return getRenderer().templateExpression();
+  }
+
+  /**
+   * Appends the template expression that is sent to the client to the given {@code Appendable}.
+   *
+   * @param out the destination of the template expression
+   * @throws IOException if an I/O error occurs
+   * @see #toString()
+   */
+  public void writeTemplate(@NonNull Appendable out) throws IOException {
+    out.append(getRenderer().templateExpression());
+  }
+
+  /**
+   * Writes the template expression that is sent to the client to the given stream, encoded in
+   * UTF-8. The expression is encoded in chunks, thus large templates can be written (e.g. for
+   * diagnostics or hashing) without creating a copy of their full size. The stream is not flushed
+   * nor closed.
+   *
+   * @param out the destination of the template expression
+   * @throws IOException if an I/O error occurs
+   * @see #toString()
+   */
+  public void writeTemplate(@NonNull OutputStream out) throws IOException {
+    TemplateLayout.write(getRenderer().templateExpression(), out);
   }
 
   @Override
   public Rendering<SOURCE> render(Element container, DataKeyMapper<SOURCE> keyMapper,
       String rendererName) {
+    var frozen = this.frozen;
+    if (frozen == null && autoFreeze) {
+      frozen = freeze().frozen;
+    }
+    if (frozen != null) {
+      return decorate(frozen.plan(),
+          getRenderer().litRenderer().render(container, keyMapper, rendererName), container);
+    }
+    var rendering = new LiteRendering<>(getRenderer(), container, keyMapper, rendererName,
+        (r, c) -> decorate(plan, r, c), this::removeRendering);
+    renderings.removeIf(ref -> ref.get() == null);
+    renderings.add(new WeakReference<>(rendering));
+    return rendering;
+  }
+
+  private void removeRendering(LiteRendering<SOURCE> rendering) {
+    renderings.removeIf(ref -> ref.get() == null || ref.get() == rendering);
+  }
+
+  /**
+   * Applies the changes made to the template to the containers where this renderer has already
+   * been rendered (e.g. the columns of a {@code Grid}). If the template or the properties that it
+   * sends have changed, the template is rendered again into each container, and the items that are
+   * active in the client are refreshed through the data communicator of the component that owns
+   * the container (if any), so that their data is sent again. Otherwise, nothing is sent.
+   * <p>
+   * The renderings made before the renderer was frozen, or before it was deserialized, are not
+   * updated.
+   *
+   * @return this instance for method chaining
+   * @throws IllegalStateException if the renderer is frozen
+   */
+  public LiteRenderer<SOURCE> updateRenderings() {
+    assertNotFrozen();
     if (renderer == null) {
       updateRenderer();
     }
-    return renderer.render(container, keyMapper, rendererName);
+    for (var ref : List.copyOf(renderings)) {
+      var rendering = ref.get();
+      if (rendering != null) {
+        rendering.update(renderer);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Freezes this renderer. The template is compiled once, and any further attempt to configure the
+   * renderer fails with {@code IllegalStateException}. Calling this method on a frozen renderer has
+   * no effect.
+   * <p>
+   * A frozen renderer does not mutate any state when rendering, thus it can be held in application
+   * scope and shared by any number of components, in different UIs and sessions. The template
+   * components must not be modified after the renderer has been frozen, and the value providers and
+   * listeners bound to the template must be safe for concurrent use.
+   * <p>
+   * Once frozen, the renderer releases the template components, and only retains the compiled
+   * template, the value providers and the listeners.
+   *
+   * @return this instance for method chaining
+   * @see #enableAutoFreeze()
+   */
+  public synchronized LiteRenderer<SOURCE> freeze() {
+    if (frozen == null) {
+      var plan = Optional.ofNullable(this.plan).orElseGet(this::compile);
+      frozen = new Frozen<>(plan, createRenderer(plan, Map.copyOf(properties)));
+      invalidate();
+      components = null;
+      roots = null;
+      fragments = null;
+      renderings.clear();
+    }
+    return this;
+  }
+
+  /**
+   * Configures this renderer to be frozen when it is rendered for the first time.
+   *
+   * @return this instance for method chaining
+   * @see #freeze()
+   */
+  public LiteRenderer<SOURCE> enableAutoFreeze() {
+    assertNotFrozen();
+    autoFreeze = true;
+    return this;
+  }
+
+  /**
+   * Returns whether this renderer is frozen.
+   *
+   * @see #freeze()
+   */
+  public boolean isFrozen() {
+    return frozen != null;
+  }
+
+  /**
+   * Configures this renderer to write a minified template. A minified template is not indented,
+   * and whitespace within text is collapsed (except within {@code pre} and {@code textarea}
+   * elements). Note that, unlike the indented template, a minified template does not introduce
+   * whitespace between the elements, thus the rendered DOM may differ.
+   * <p>
+   * By default, the template is indented.
+   *
+   * @return this instance for method chaining
+   */
+  public LiteRenderer<SOURCE> enableMinification() {
+    assertNotFrozen();
+    minified = true;
+    invalidate();
+    return this;
+  }
+
+  /**
+   * Configures this renderer to fail if any of the properties registered through
+   * {@link #withProperty(String, ValueProvider)} is not referenced by the template. The check is
+   * done when the template is compiled for rendering, and it fails with
+   * {@code IllegalStateException}.
+   * <p>
+   * Regardless of this setting, the properties that are not referenced by the template are not
+   * evaluated. A property is referenced by an expression such as <code>${item.name}</code>. If the
+   * template accesses the item in any other way (e.g. <code>${item[name]}</code>), all the
+   * properties are considered referenced.
+   *
+   * @return this instance for method chaining
+   */
+  public LiteRenderer<SOURCE> enableStrictMode() {
+    assertNotFrozen();
+    strict = true;
+    invalidate();
+    return this;
+  }
+
+  /**
+   * Configures this renderer to send the properties of each item with the shortest possible names
+   * (such as {@code a}, {@code b}, ..., {@code aa}), instead of their own names. The template is
+   * rewritten to match, thus the names used in the template and in
+   * {@link #withProperty(String, ValueProvider)} are not affected.
+   * <p>
+   * Since the names of the properties are repeated in the data of every item, shorter names reduce
+   * the size of the data sent to the client, notably for components with many rows and few
+   * columns. Names are not shortened if the template accesses the item in any other way than an
+   * expression such as <code>${item.name}</code>.
+   *
+   * @return this instance for method chaining
+   */
+  public LiteRenderer<SOURCE> enableShortPropertyNames() {
+    assertNotFrozen();
+    shortNames = true;
+    invalidate();
+    return this;
+  }
+
+  /**
+   * Writes this renderer. A frozen renderer is written as its compiled plan, without the template
+   * components, and the {@code LitRenderer} is rebuilt when needed.
+   */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    out.defaultWriteObject();
+    var frozen = this.frozen;
+    out.writeObject(frozen == null ? components : null);
+    out.writeObject(frozen != null ? frozen.plan() : null);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    components = (List<Component>) in.readObject();
+    var plan = (TemplatePlan<SOURCE>) in.readObject();
+    if (plan != null) {
+      frozen = new Frozen<>(plan, null);
+    }
+    renderings = new ArrayList<>();
   }
 
   /**
    * Creates a new {@code LiteRenderer} using the specified template components. The renderer will
-   * automatically reflect any updates made to the components, up until the first render.
+   * automatically reflect any updates made to the components, up until the first render (or until
+   * the renderer is {@linkplain #freeze() frozen}).
+   * Afterwards, the template is recompiled when it is configured through this renderer, and only
+   * the subtrees that were modified since the previous render (either through the renderer or
+   * directly on the components) are compiled again.
+   * The changes are applied to the existing renderings by {@link #updateRenderings()}.
    * <p>
    * <code>${placeholder}</code> expressions within attribute and property values will be
    * interpolated, allowing them to dynamically reflect the same properties accessible to
@@ -166,6 +476,7 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
    * @see LiteRenderer#disableInterpolation(Component)
    */
   public LiteRenderer<SOURCE> disableInterpolation() {
+    assertNotFrozen();
     components.forEach(component -> LiteComponent.of(component).disableInterpolation());
     return this;
   }
@@ -180,6 +491,7 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
    * @see LiteComponent#disableInterpolation()
    */
   public LiteRenderer<SOURCE> disableInterpolation(Component component) {
+    assertNotFrozen();
     LiteComponent.of(component).disableInterpolation();
     return this;
   }
@@ -194,18 +506,159 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
    * @see LiteComponent#enableInterpolation()
    */
   public LiteRenderer<SOURCE> enableInterpolation(Component component) {
+    assertNotFrozen();
     LiteComponent.of(component).enableInterpolation();
     return this;
   }
 
   private void assertTemplateContainsComponent(Component c) {
-    if (components.stream().noneMatch(component -> find(component, c))) {
+    assertNotFrozen();
+    if (!contains(c)) {
       throw new IllegalArgumentException("Component is not a children of the template");
     }
   }
 
-  private static boolean find(Component c, Component target) {
-    return c == target || c.getChildren().anyMatch(child -> find(child, target));
+  /**
+   * Returns whether the given component (or the component wrapped by a {@code LiteComponent}) is
+   * one of the template components or a descendant of them. The check walks up the ancestors of
+   * the component, thus its cost depends on the depth of the component, not on the size of the
+   * template.
+   */
+  private boolean contains(Component target) {
+    if (roots == null) {
+      roots = Collections.newSetFromMap(new IdentityHashMap<>());
+      for (Component component : components) {
+        roots.add(component);
+        if (component instanceof LiteComponent<?> lite) {
+          roots.add(lite.unwrap());
+        }
+      }
+    }
+
+    if (roots.contains(target)) {
+      return true;
+    }
+    while (target instanceof LiteComponent<?> lite) {
+      // a LiteComponent has no element of its own
+      target = lite.unwrap();
+    }
+    for (Element e = target.getElement(); e != null; e = e.getParent()) {
+      if (e.getComponent().filter(roots::contains).isPresent()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns a {@code ValueProvider} that provides the same value for every item. When a constant
+   * string, boolean or finite number is bound to an attribute or property of the template, or
+   * registered with {@link #withProperty(String, ValueProvider)}, the value is written into the
+   * template instead of being sent with each item.
+   * <p>
+   * Example:
+   *
+   * <pre>
+   * {@code
+   * LiteRenderer.<Person>of(new Span("${item.label}: ${item.name}"))
+   *             .withProperty("label", LiteRenderer.constant(getTranslation("name")))
+   *             .withProperty("name", Person::getName);
+   * }
+   * </pre>
+   *
+   * @param <SOURCE> the type of the model object
+   * @param <T> the type of the value
+   * @param value the value
+   * @return a value provider that returns {@code value}
+   */
+  public static <SOURCE, T> ValueProvider<SOURCE, T> constant(T value) {
+    return new ConstantValueProvider<>(value);
+  }
+
+  /**
+   * Returns a {@code ValueProvider} that is identified by the given key. The attributes and
+   * properties of the template are bound to a single generated property for each distinct value
+   * provider, which is evaluated once per item. Value providers are distinct unless they are the
+   * same instance, or they are keyed with equal keys. Use this method when the same value is
+   * bound through different instances, such as method references from different call sites.
+   * <p>
+   * Example:
+   *
+   * <pre>
+   * {@code
+   * var status = LiteRenderer.keyed("status", Person::getStatus);
+   * LiteComponent.of(new Span()).withAttribute("title", status).withAttribute("class", status);
+   * }
+   * </pre>
+   *
+   * @param <SOURCE> the type of the model object
+   * @param <T> the type of the value
+   * @param key the key of the value provider
+   * @param valueProvider the value provider
+   * @return a value provider that delegates to {@code valueProvider}
+   */
+  public static <SOURCE, T> ValueProvider<SOURCE, T> keyed(@NonNull Object key,
+      @NonNull ValueProvider<SOURCE, T> valueProvider) {
+    return new KeyedValueProvider<>(key, valueProvider);
+  }
+
+  /**
+   * Returns a {@code ValueProvider} that provides the values of a batch of items at once. When the
+   * data of several items is sent to the client in the same response (such as a page of a
+   * {@code Grid}), the batch value provider is called once for all of them, instead of once for
+   * each item. This avoids issuing a query for each item when the values are looked up in a remote
+   * service.
+   * <p>
+   * Example:
+   *
+   * <pre>
+   * {@code
+   * LiteRenderer.<Person>of(new Span("${item.tickets}"))
+   *             .withProperty("tickets", LiteRenderer.batch(service::countOpenTickets));
+   * }
+   * </pre>
+   *
+   * The value provider can be bound through {@link #withProperty(String, ValueProvider)} or to the
+   * attributes and properties of the template. When the value provider is called outside a batch,
+   * the batch value provider is called with a single item.
+   *
+   * @param <SOURCE> the type of the model object
+   * @param <T> the type of the value
+   * @param batchValueProvider the batch value provider
+   * @return a value provider that delegates to {@code batchValueProvider}
+   */
+  public static <SOURCE, T> ValueProvider<SOURCE, T> batch(
+      @NonNull BatchValueProvider<SOURCE, T> batchValueProvider) {
+    return new BatchedValueProvider<>(batchValueProvider);
+  }
+
+  /**
+   * Returns a {@code ValueProvider} that caches the values of the given value provider. By default,
+   * values are cached by item identity, up to 10000 values. The returned provider can be configured
+   * to cache by a key of the item, to recompute the values when the version of an item changes, to
+   * expire the values, or to hold them through soft references, and it reports the hit rate of the
+   * cache.
+   * <p>
+   * Example:
+   *
+   * <pre>
+   * {@code
+   * LiteRenderer.<Article>of(new Div())
+   *     .withProperty("html", LiteRenderer.cached(article -> markdown.render(article.getText()))
+   *         .withKey(Article::getId)
+   *         .withVersion(Article::getVersion)
+   *         .withExpiration(Duration.ofMinutes(10)));
+   * }
+   * </pre>
+   *
+   * @param <SOURCE> the type of the model object
+   * @param <T> the type of the value
+   * @param valueProvider the value provider whose values are cached
+   * @return a caching value provider that delegates to {@code valueProvider}
+   */
+  public static <SOURCE, T> CachedValueProvider<SOURCE, T> cached(
+      @NonNull ValueProvider<SOURCE, T> valueProvider) {
+    return new CachedValueProvider<>(valueProvider);
   }
 
   /**
@@ -235,10 +688,189 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
   public LiteRenderer<SOURCE> withProperty(
       @NonNull String property,
       @NonNull ValueProvider<SOURCE, ?> provider) {
+    assertNotFrozen();
     properties.put(property, provider);
-    if (renderer != null) {
-      renderer.withProperty(property, provider);
-    }
+    renderer = null;
+    return this;
+  }
+
+  /**
+   * Makes a property available to the template component, whose value is computed in the client by
+   * a javascript expression. The expression is written into the template in place of each
+   * reference to the property, thus the property is not evaluated in the server nor sent for each
+   * item. The expression may reference other properties (including computed properties) with the
+   * {@code item.property} syntax, as well as the {@code index} of the item.
+   * <p>
+   * Example:
+   *
+   * <pre>
+   * {@code
+   * LiteRenderer.<Person>of(new Div("${item.fullName}"))
+   *             .withProperty("firstName", Person::getFirstName)
+   *             .withProperty("lastName", Person::getLastName)
+   *             .withComputedProperty("fullName", "item.firstName + ' ' + item.lastName");
+   * }
+   * </pre>
+   *
+   * A computed property takes precedence over a property with the same name that was registered
+   * through {@link #withProperty(String, ValueProvider)}.
+   *
+   * @param property the name of the property used inside the template expression. Must not be
+   *        {@code null}.
+   * @param expression the javascript expression that computes the value of the property. Must not
+   *        be {@code null}.
+   * @param dependsOn the names of other properties that are used by the expression. These
+   *        properties are sent for each item whenever the computed property is referenced, even if
+   *        the expression does not reference them as {@code item.property}.
+   * @return this instance for method chaining
+   * @throws IllegalStateException if the renderer is frozen
+   */
+  public LiteRenderer<SOURCE> withComputedProperty(@NonNull String property,
+      @NonNull String expression, String... dependsOn) {
+    assertNotFrozen();
+    computedProperties.put(property, new ComputedProperty(expression, List.of(dependsOn)));
+    renderer = null;
+    return this;
+  }
+
+  /**
+   * Declares a value that is computed from the item, and shared by the value providers of the
+   * renderer. The value is computed at most once each time the data of an item is generated, when
+   * any value provider requests it through {@link #getContext(String, Class)}.
+   * <p>
+   * Example:
+   *
+   * <pre>
+   * {@code
+   * LiteRenderer.<Order>of(new Span("${item.status} ${item.since}"))
+   *             .withContext("status", order -> computeStatus(order))
+   *             .withProperty("status",
+   *                 order -> LiteRenderer.getContext("status", Status.class).getLabel())
+   *             .withProperty("since",
+   *                 order -> LiteRenderer.getContext("status", Status.class).getSince());
+   * }
+   * </pre>
+   *
+   * @param key the key of the context. Must not be {@code null}.
+   * @param function the function that computes the value of the context from the item. Must not
+   *        be {@code null}.
+   * @return this instance for method chaining
+   * @throws IllegalStateException if the renderer is frozen
+   */
+  public LiteRenderer<SOURCE> withContext(@NonNull String key,
+      @NonNull SerializableFunction<SOURCE, ?> function) {
+    assertNotFrozen();
+    contexts.put(key, function);
+    renderer = null;
+    return this;
+  }
+
+  /**
+   * Returns the value of a context of the item whose data is being generated. This method is
+   * intended to be called from the value providers of a renderer.
+   *
+   * @param key the key of the context.
+   * @param type the type of the value.
+   * @throws ClassCastException if the value is not assignable to {@code type}.
+   * @throws IllegalArgumentException if the renderer has no context with the given key.
+   * @throws IllegalStateException if the data of no item is being generated.
+   * @return the value of the context
+   * @see #withContext(String, SerializableFunction)
+   */
+  public static <T> T getContext(@NonNull String key, @NonNull Class<T> type) {
+    return type.cast(ContextRendering.get(key));
+  }
+
+  /**
+   * Makes a {@code int} property available to the template component, as in
+   * {@link #withProperty(String, ValueProvider)}. The value is converted to JSON without being
+   * boxed.
+   *
+   * @param property the name of the property used inside the template expression. Must not be
+   *        {@code null}.
+   * @param provider a function that provides the value of the property. Must not be {@code null}.
+   * @return this instance for method chaining
+   */
+  public LiteRenderer<SOURCE> withIntProperty(@NonNull String property,
+      @NonNull OfInt<SOURCE> provider) {
+    return withProperty(property, PrimitiveValueProvider.ofInt(provider));
+  }
+
+  /**
+   * Makes a {@code long} property available to the template component, as in
+   * {@link #withProperty(String, ValueProvider)}. The value is converted to JSON without being
+   * boxed.
+   * <p>
+   * Note that javascript numbers cannot represent every {@code long} value exactly, thus values
+   * beyond 2<sup>53</sup> are rounded.
+   *
+   * @param property the name of the property used inside the template expression. Must not be
+   *        {@code null}.
+   * @param provider a function that provides the value of the property. Must not be {@code null}.
+   * @return this instance for method chaining
+   */
+  public LiteRenderer<SOURCE> withLongProperty(@NonNull String property,
+      @NonNull OfLong<SOURCE> provider) {
+    return withProperty(property, PrimitiveValueProvider.ofLong(provider));
+  }
+
+  /**
+   * Makes a {@code double} property available to the template component, as in
+   * {@link #withProperty(String, ValueProvider)}. The value is converted to JSON without being
+   * boxed.
+   *
+   * @param property the name of the property used inside the template expression. Must not be
+   *        {@code null}.
+   * @param provider a function that provides the value of the property. Must not be {@code null}.
+   * @return this instance for method chaining
+   */
+  public LiteRenderer<SOURCE> withDoubleProperty(@NonNull String property,
+      @NonNull OfDouble<SOURCE> provider) {
+    return withProperty(property, PrimitiveValueProvider.ofDouble(provider));
+  }
+
+  /**
+   * Makes a {@code boolean} property available to the template component, as in
+   * {@link #withProperty(String, ValueProvider)}. The value is converted to JSON without being
+   * boxed.
+   *
+   * @param property the name of the property used inside the template expression. Must not be
+   *        {@code null}.
+   * @param provider a function that provides the value of the property. Must not be {@code null}.
+   * @return this instance for method chaining
+   */
+  public LiteRenderer<SOURCE> withBooleanProperty(@NonNull String property,
+      @NonNull OfBoolean<SOURCE> provider) {
+    return withProperty(property, PrimitiveValueProvider.ofBoolean(provider));
+  }
+
+  /**
+   * Makes the properties of the items available to the template component. Each property that is
+   * referenced by the template as {@code ${item.property}}, and that has not been registered
+   * through {@link #withProperty(String, ValueProvider)}, is bound to the record component or bean
+   * getter of the same name (if any) of the given class.
+   * <p>
+   * Example:
+   *
+   * <pre>
+   * {@code
+   * LiteRenderer.<Person>of(new Div("${item.firstName} (${item.address.city})"))
+   *             .withPropertiesOf(Person.class);
+   * }
+   * </pre>
+   *
+   * When the template only accesses members of a property (as in {@code ${item.address.city}}),
+   * only those members are sent to the client. The accessors are generated once for each class, so
+   * that reading a property is as fast as a method reference.
+   *
+   * @param type the class of the items. Must not be {@code null}.
+   * @return this instance for method chaining
+   * @throws IllegalStateException if the renderer is frozen
+   */
+  public LiteRenderer<SOURCE> withPropertiesOf(@NonNull Class<SOURCE> type) {
+    assertNotFrozen();
+    beanType = type;
+    renderer = null;
     return this;
   }
 
@@ -262,7 +894,7 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
       @NonNull ValueProvider<SOURCE, ?> valueProvider) {
     assertTemplateContainsComponent(component);
     LiteComponent.of(component).withElementProperty(name, valueProvider);
-    renderer = null;
+    invalidate();
     return this;
   }
 
@@ -285,7 +917,7 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
       @NonNull String attribute, @NonNull ValueProvider<SOURCE, ?> valueProvider) {
     assertTemplateContainsComponent(component);
     LiteComponent.of(component).withAttribute(attribute, valueProvider);
-    renderer = null;
+    invalidate();
     return this;
   }
 
@@ -317,7 +949,7 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
       @NonNull String attribute, String value) {
     assertTemplateContainsComponent(component);
     LiteComponent.of(component).withAttribute(attribute, value);
-    renderer = null;
+    invalidate();
     return this;
   }
 
@@ -358,7 +990,7 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
       String... eventArguments) {
     assertTemplateContainsComponent(component);
     LiteComponent.of(component).withListener(eventType, handler, eventArguments);
-    renderer = null;
+    invalidate();
     return this;
   }
 
@@ -380,27 +1012,41 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
       @NonNull SerializableConsumer<SOURCE> handler) {
     assertTemplateContainsComponent(component);
     LiteComponent.of(component).withListener(eventType, handler);
-    renderer = null;
+    invalidate();
     return this;
   }
 
-  static void fireEvent(Object item, ComponentEvent<?> event) {
-    setItem(event, item);
+  /**
+   * Fires a click event of a button of the template. The event is delivered to the click listeners
+   * that the button had when the template was compiled, and its source is a detached button, since
+   * the compiled template does not retain its components.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  static void fireClickEvent(Object item, List<?> listeners) {
+    var event = new ClickEvent<>(new Button());
+    var previous = currentItem.get();
+    currentItem.set(new LiteRendererItemReference(event, item, previous));
     try {
-      ComponentUtil.fireEvent(event.getSource(), event);
+      for (Object listener : listeners) {
+        ((ComponentEventListener) listener).onComponentEvent(event);
+      }
     } finally {
-      setItem(event, null);
+      if (previous != null) {
+        currentItem.set(previous);
+      } else {
+        currentItem.remove();
+      }
     }
   }
 
-  @RequiredArgsConstructor
-  private static class LiteRendererItemReference implements Serializable {
-    private final Object item;
-  }
+  /**
+   * The items of the events being fired on the current thread. The template components of a frozen
+   * renderer may be shared between sessions, thus the item cannot be stored in the component.
+   */
+  private static final ThreadLocal<LiteRendererItemReference> currentItem = new ThreadLocal<>();
 
-  private static void setItem(ComponentEvent<?> event, Object item) {
-    var ref = Optional.ofNullable(item).map(LiteRendererItemReference::new).orElse(null);
-    ComponentUtil.setData(event.getSource(), LiteRendererItemReference.class, ref);
+  private record LiteRendererItemReference(ComponentEvent<?> event, Object item,
+      LiteRendererItemReference previous) {
   }
 
   /**
@@ -414,11 +1060,12 @@ public class LiteRenderer<SOURCE> extends Renderer<SOURCE> {
    * @return the item of an event fired on the template
    */
   public static <T> T getItem(ComponentEvent<?> event, Class<T> type) {
-    var ref = ComponentUtil.getData(event.getSource(), LiteRendererItemReference.class);
-    if (ref == null) {
-      throw new IllegalStateException();
+    for (var ref = currentItem.get(); ref != null; ref = ref.previous()) {
+      if (ref.event() == event) {
+        return type.cast(ref.item());
+      }
     }
-    return type.cast(ref.item);
+    throw new IllegalStateException();
   }
 
 }
@@ -36,6 +36,9 @@ class LiteRendererData<SOURCE> implements Serializable {
   private Map<String, ValueProvider<SOURCE, ?>> properties = Collections.emptyMap();
   private Boolean interpolationEnabled;
 
+  /** Modification count of the renderer configuration of this component. */
+  private long version;
+
   @SuppressWarnings("unchecked")
   static <SOURCE> LiteRendererData<SOURCE> getInstance(Component c) {
     var data = ComponentUtil.getData(c, LiteRendererData.class);
@@ -46,20 +49,35 @@ class LiteRendererData<SOURCE> implements Serializable {
     return data;
   }
 
+  long getVersion() {
+    return version;
+  }
+
+  /**
+   * Marks this component as modified. The components that contain it are recompiled because the
+   * fragment of this component changes.
+   */
+  private void touch() {
+    ++version;
+  }
+
   Optional<Boolean> isInterpolationEnabled() {
     return Optional.ofNullable(interpolationEnabled);
   }
 
   void setInterpolationEnabled(boolean interpolationEnabled) {
     this.interpolationEnabled = interpolationEnabled;
+    touch();
   }
 
   void addProperty(String name, ValueProvider<SOURCE, ?> valueProvider) {
     properties = put(properties, name, valueProvider);
+    touch();
   }
 
   void removeProperty(String name) {
     properties = remove(properties, name);
+    touch();
   }
 
   Map<String, ValueProvider<SOURCE, ?>> getProperties() {
@@ -68,10 +86,12 @@ class LiteRendererData<SOURCE> implements Serializable {
 
   void addAttribute(String attribute, ValueProvider<SOURCE, ?> valueProvider) {
     attributes = put(attributes, attribute, valueProvider);
+    touch();
   }
 
   void removeAttribute(String name) {
     attributes = remove(attributes, name);
+    touch();
   }
 
   Map<String, ValueProvider<SOURCE, ?>> getAttributes() {
@@ -85,6 +105,7 @@ class LiteRendererData<SOURCE> implements Serializable {
           eventType));
     }
     listeners = put(listeners, eventType, listener);
+    touch();
   }
 
   Map<String, LiteListener<SOURCE>> getListeners() {
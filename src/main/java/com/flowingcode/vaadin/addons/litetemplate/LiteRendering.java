@@ -0,0 +1,189 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.flowingcode.vaadin.addons.litetemplate.TemplatePlan.Rendered;
+import com.vaadin.flow.data.provider.DataCommunicator;
+import com.vaadin.flow.data.provider.DataGenerator;
+import com.vaadin.flow.data.provider.DataKeyMapper;
+import com.vaadin.flow.data.renderer.Rendering;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.SerializableBiFunction;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.shared.Registration;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@code Rendering} of a {@link LiteRenderer} that is not frozen. The template of the rendering
+ * can be replaced after the container has been rendered, by rendering another {@code LitRenderer}
+ * into the same container.
+ */
+@SuppressWarnings("serial")
+final class LiteRendering<SOURCE> implements Rendering<SOURCE> {
+
+  private static final int MIN_TRACKING_LIMIT = 64;
+
+  private final Element container;
+  private final DataKeyMapper<SOURCE> keyMapper;
+  private final String rendererName;
+  private final SerializableBiFunction<Rendering<SOURCE>, Element, Rendering<SOURCE>> decorator;
+  private final SerializableConsumer<LiteRendering<SOURCE>> onRemove;
+
+  private Rendered<SOURCE> renderer;
+  private Rendering<SOURCE> rendering;
+
+  /**
+   * The items whose data has been generated, by key. Those that are still active in the client are
+   * refreshed when the template is updated.
+   */
+  private final Map<String, SOURCE> items = new HashMap<>();
+
+  private int trackingLimit = MIN_TRACKING_LIMIT;
+
+  /**
+   * Transient, since the data generator references this rendering, and a serialized lambda cannot
+   * be part of a reference cycle.
+   */
+  private transient DataGenerator<SOURCE> dataGenerator;
+
+  /**
+   * @param decorator a function that decorates the rendering of each {@code LitRenderer} into the
+   *        container.
+   */
+  LiteRendering(Rendered<SOURCE> renderer, Element container, DataKeyMapper<SOURCE> keyMapper,
+      String rendererName,
+      SerializableBiFunction<Rendering<SOURCE>, Element, Rendering<SOURCE>> decorator,
+      SerializableConsumer<LiteRendering<SOURCE>> onRemove) {
+    this.container = container;
+    this.keyMapper = keyMapper;
+    this.rendererName = rendererName;
+    this.decorator = decorator;
+    this.onRemove = onRemove;
+    this.renderer = renderer;
+    rendering = render(renderer);
+  }
+
+  private Rendering<SOURCE> render(Rendered<SOURCE> renderer) {
+    return decorator.apply(renderer.litRenderer().render(container, keyMapper, rendererName),
+        container);
+  }
+
+  Rendered<SOURCE> getRenderer() {
+    return renderer;
+  }
+
+  /**
+   * Renders the given renderer into the container, and refreshes the items that are active in the
+   * client, so that their data is generated again for the new template. Nothing is done if the
+   * given renderer sends the same template and properties as the current one.
+   */
+  void update(Rendered<SOURCE> renderer) {
+    if (renderer.isEquivalent(this.renderer)) {
+      return;
+    }
+    rendering.getRegistration().remove();
+    this.renderer = renderer;
+    rendering = render(renderer);
+    refreshItems();
+  }
+
+  private void refreshItems() {
+    if (items.isEmpty()) {
+      return;
+    }
+    var active = items.values().stream().filter(keyMapper::has).toList();
+    items.clear();
+    if (!active.isEmpty()) {
+      findDataCommunicator()
+          .ifPresent(dataCommunicator -> active.forEach(dataCommunicator::refresh));
+    }
+  }
+
+  @Override
+  public Optional<DataGenerator<SOURCE>> getDataGenerator() {
+    return Optional.of(getOrCreateDataGenerator());
+  }
+
+  private DataGenerator<SOURCE> getOrCreateDataGenerator() {
+    if (dataGenerator == null) {
+      dataGenerator = DataGenerators.create(this::generateData);
+    }
+    return dataGenerator;
+  }
+
+  @Override
+  public Registration getRegistration() {
+    return () -> {
+      rendering.getRegistration().remove();
+      onRemove.accept(this);
+    };
+  }
+
+  /**
+   * Finds the {@code DataCommunicator} of the component that owns the container (e.g. a
+   * {@code Grid}), through its {@code getDataCommunicator} method.
+   */
+  @SuppressWarnings("unchecked")
+  private Optional<DataCommunicator<SOURCE>> findDataCommunicator() {
+    for (Element element = container; element != null; element = element.getParent()) {
+      var component = element.getComponent().orElse(null);
+      if (component != null) {
+        try {
+          var result = component.getClass().getMethod("getDataCommunicator").invoke(component);
+          if (result instanceof DataCommunicator<?> dataCommunicator) {
+            return Optional.of((DataCommunicator<SOURCE>) dataCommunicator);
+          }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+          // the component does not expose a data communicator
+        } catch (InvocationTargetException e) {
+          throw new IllegalStateException(e.getCause());
+        }
+      }
+    }
+    return Optional.empty();
+  }
+
+  /** Generates the data of an item through the data generator of the current rendering. */
+  private void generateData(SOURCE item, Object json) {
+    if (keyMapper != null) {
+      track(item);
+    }
+    var delegate = rendering.getDataGenerator().orElse(null);
+    if (delegate != null) {
+      DataGenerators.generateData(delegate, item, json);
+    }
+  }
+
+  /**
+   * Tracks an item whose data is generated. The items that are no longer active are discarded
+   * when the number of tracked items doubles.
+   */
+  private void track(SOURCE item) {
+    items.put(keyMapper.key(item), item);
+    if (items.size() > trackingLimit) {
+      items.values().removeIf(e -> !keyMapper.has(e));
+      trackingLimit = Math.max(MIN_TRACKING_LIMIT, 2 * items.size());
+    }
+  }
+
+}
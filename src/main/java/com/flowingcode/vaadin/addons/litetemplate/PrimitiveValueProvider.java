@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.server.Version;
+import elemental.json.Json;
+import elemental.json.JsonValue;
+import java.io.Serializable;
+
+/**
+ * Value providers of primitive values. The values are converted into JSON values without being
+ * boxed first, in the versions of Vaadin where the data of the items is generated as elemental
+ * JSON.
+ *
+ * @see LiteRenderer#withIntProperty(String, OfInt)
+ * @see LiteComponent#withElementPropertyInt(String, OfInt)
+ */
+public final class PrimitiveValueProvider {
+
+  /**
+   * Provides an {@code int} value from an item.
+   *
+   * @param <SOURCE> the type of the model object
+   */
+  @FunctionalInterface
+  public interface OfInt<SOURCE> extends Serializable {
+    int applyAsInt(SOURCE item);
+  }
+
+  /**
+   * Provides a {@code long} value from an item.
+   *
+   * @param <SOURCE> the type of the model object
+   */
+  @FunctionalInterface
+  public interface OfLong<SOURCE> extends Serializable {
+    long applyAsLong(SOURCE item);
+  }
+
+  /**
+   * Provides a {@code double} value from an item.
+   *
+   * @param <SOURCE> the type of the model object
+   */
+  @FunctionalInterface
+  public interface OfDouble<SOURCE> extends Serializable {
+    double applyAsDouble(SOURCE item);
+  }
+
+  /**
+   * Provides a {@code boolean} value from an item.
+   *
+   * @param <SOURCE> the type of the model object
+   */
+  @FunctionalInterface
+  public interface OfBoolean<SOURCE> extends Serializable {
+    boolean applyAsBoolean(SOURCE item);
+  }
+
+  /** Whether the values are converted into elemental JSON values. */
+  private static final boolean ELEMENTAL = Version.getMajorVersion() < 25;
+
+  private static final JsonValue TRUE = ELEMENTAL ? Json.create(true) : null;
+
+  private static final JsonValue FALSE = ELEMENTAL ? Json.create(false) : null;
+
+  private PrimitiveValueProvider() {}
+
+  static <SOURCE> ValueProvider<SOURCE, ?> ofInt(OfInt<SOURCE> provider) {
+    if (ELEMENTAL) {
+      return item -> Json.create(provider.applyAsInt(item));
+    }
+    return provider::applyAsInt;
+  }
+
+  static <SOURCE> ValueProvider<SOURCE, ?> ofLong(OfLong<SOURCE> provider) {
+    if (ELEMENTAL) {
+      return item -> Json.create(provider.applyAsLong(item));
+    }
+    return provider::applyAsLong;
+  }
+
+  static <SOURCE> ValueProvider<SOURCE, ?> ofDouble(OfDouble<SOURCE> provider) {
+    if (ELEMENTAL) {
+      return item -> Json.create(provider.applyAsDouble(item));
+    }
+    return provider::applyAsDouble;
+  }
+
+  static <SOURCE> ValueProvider<SOURCE, ?> ofBoolean(OfBoolean<SOURCE> provider) {
+    if (ELEMENTAL) {
+      return item -> provider.applyAsBoolean(item) ? TRUE : FALSE;
+    }
+    return provider::applyAsBoolean;
+  }
+
+}
@@ -0,0 +1,102 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.internal.JsonSerializer;
+import com.vaadin.flow.server.Version;
+import elemental.json.Json;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tree of the members of a property value that are accessed by a template. A bean or record is
+ * projected into an object that only contains the accessed members, instead of being serialized
+ * as a whole.
+ */
+@SuppressWarnings("serial")
+final class Projection implements Serializable {
+
+  private final Map<String, Projection> members = new LinkedHashMap<>();
+
+  /** Whether the value is used as a whole, e.g. as an argument or by a method call. */
+  private boolean whole;
+
+  /** Adds a path of member names, relative to this node. */
+  void add(List<String> path) {
+    Projection node = this;
+    for (String name : path) {
+      if (node.whole) {
+        return;
+      }
+      node = node.members.computeIfAbsent(name, n -> new Projection());
+    }
+    node.whole = true;
+    node.members.clear();
+  }
+
+  boolean isWhole() {
+    return whole;
+  }
+
+  /** Returns a value provider that projects the values of the given provider. */
+  <SOURCE> ValueProvider<SOURCE, ?> apply(ValueProvider<SOURCE, ?> valueProvider) {
+    return source -> project(valueProvider.apply(source));
+  }
+
+  /**
+   * Returns a projection of the value that only contains the accessed members. The value itself is
+   * returned if it is not a bean, or if any of the accessed members is not a property of the bean
+   * (in which case the value is serialized as a whole).
+   */
+  Object project(Object value) {
+    if (whole || value == null) {
+      return value;
+    }
+
+    var accessors = PropertyAccessors.get(value.getClass(), members.keySet());
+    if (accessors == null) {
+      return value;
+    }
+
+    if (Version.getMajorVersion() >= 25) {
+      Map<String, Object> map = new LinkedHashMap<>();
+      members.forEach((name, member) -> {
+        map.put(name, member.project(accessors.get(name).apply(value)));
+      });
+      return map;
+    } else {
+      JsonObject json = Json.createObject();
+      members.forEach((name, member) -> {
+        json.put(name, toJson(member.project(accessors.get(name).apply(value))));
+      });
+      return json;
+    }
+  }
+
+  private static JsonValue toJson(Object value) {
+    return value instanceof JsonValue json ? json : JsonSerializer.toJson(value);
+  }
+
+}
@@ -0,0 +1,230 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.vaadin.flow.function.ValueProvider;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.RecordComponent;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+
+/**
+ * Accessors of the properties of beans and records. Accessors are generated with
+ * {@link LambdaMetafactory}, so that they are invoked as fast as a direct call, and they are cached
+ * for each class.
+ */
+final class PropertyAccessors {
+
+  private static final ClassValue<Map<String, Optional<Function<Object, Object>>>> cache =
+      new ClassValue<>() {
+        @Override
+        protected Map<String, Optional<Function<Object, Object>>> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private PropertyAccessors() {}
+
+  /**
+   * Returns the accessors of the given properties of a class, or {@code null} if the class is not
+   * a bean or record, or if any of the properties has no accessor.
+   */
+  static Map<String, Function<Object, Object>> get(Class<?> type, Collection<String> names) {
+    if (!isBean(type)) {
+      return null;
+    }
+    Map<String, Function<Object, Object>> result = new HashMap<>();
+    for (String name : names) {
+      var accessor = get(type, name);
+      if (accessor == null) {
+        return null;
+      }
+      result.put(name, accessor);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the accessor of a property of a class, or {@code null} if the class is not a bean or
+   * record, or if the property has no accessor.
+   */
+  static Function<Object, Object> get(Class<?> type, String name) {
+    if (!isBean(type)) {
+      return null;
+    }
+    return cache.get(type)
+        .computeIfAbsent(name, n -> Optional.ofNullable(lookup(type, n)))
+        .orElse(null);
+  }
+
+  /**
+   * Returns a value provider that reads a property of the items through its generated accessor, or
+   * {@code null} if the class has no accessor for that property.
+   */
+  static <SOURCE> ValueProvider<SOURCE, ?> valueProvider(Class<SOURCE> type, String name) {
+    return get(type, name) != null ? new AccessorValueProvider<>(type, name) : null;
+  }
+
+  /**
+   * A value provider that reads a property through its accessor. The accessor itself is not
+   * serializable, and it is looked up again after deserialization (failing with an
+   * {@code IllegalStateException} if the class no longer has that property). Value providers of
+   * the same property are equal.
+   */
+  @SuppressWarnings("serial")
+  @RequiredArgsConstructor
+  private static final class AccessorValueProvider<SOURCE>
+      implements ValueProvider<SOURCE, Object> {
+
+    private final Class<SOURCE> type;
+
+    private final String name;
+
+    private transient Function<Object, Object> accessor;
+
+    @Override
+    public Object apply(SOURCE item) {
+      var accessor = this.accessor;
+      if (accessor == null) {
+        accessor = get(type, name);
+        if (accessor == null) {
+          throw new IllegalStateException(
+              "No accessor for property " + name + " of " + type.getName());
+        }
+        this.accessor = accessor;
+      }
+      return accessor.apply(item);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof AccessorValueProvider<?> other
+          && type == other.type && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * type.hashCode() + name.hashCode();
+    }
+  }
+
+  /** Returns whether the properties of a class may be projected. */
+  private static boolean isBean(Class<?> type) {
+    if (type.isArray() || type.isEnum() || type.isPrimitive()) {
+      return false;
+    }
+    String name = type.getName();
+    return !name.startsWith("java.") && !name.startsWith("javax.")
+        && !name.startsWith("elemental.json.") && !name.startsWith("com.fasterxml.jackson.");
+  }
+
+  private static Function<Object, Object> lookup(Class<?> type, String name) {
+    Method method = findReadMethod(type, name);
+    if (method == null) {
+      return null;
+    }
+    if (isVisible(method.getDeclaringClass())) {
+      try {
+        return metafactory(method);
+      } catch (Throwable e) {
+        // e.g. the declaring class is not public
+      }
+    }
+    return methodHandle(method);
+  }
+
+  /**
+   * Returns whether a class is visible from the class loader of this class, so that a generated
+   * accessor can be linked against it.
+   */
+  private static boolean isVisible(Class<?> type) {
+    try {
+      return Class.forName(type.getName(), false, PropertyAccessors.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private static Method findReadMethod(Class<?> type, String name) {
+    if (type.isRecord()) {
+      for (RecordComponent component : type.getRecordComponents()) {
+        if (component.getName().equals(name)) {
+          return component.getAccessor();
+        }
+      }
+      return null;
+    }
+
+    String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    for (String prefix : new String[] {"get", "is"}) {
+      try {
+        Method method = type.getMethod(prefix + suffix);
+        if (!Modifier.isStatic(method.getModifiers()) && method.getReturnType() != void.class
+            && (prefix.equals("get") || method.getReturnType() == boolean.class)) {
+          return method;
+        }
+      } catch (NoSuchMethodException e) {
+        // try the next prefix
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function<Object, Object> metafactory(Method method) throws Throwable {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    MethodHandle target = lookup.unreflect(method);
+    var site = LambdaMetafactory.metafactory(lookup, "apply",
+        MethodType.methodType(Function.class),
+        MethodType.methodType(Object.class, Object.class),
+        target, target.type().wrap());
+    return (Function<Object, Object>) site.getTarget().invokeExact();
+  }
+
+  private static Function<Object, Object> methodHandle(Method method) {
+    MethodHandle target;
+    try {
+      method.setAccessible(true);
+      target = MethodHandles.lookup().unreflect(method)
+          .asType(MethodType.methodType(Object.class, Object.class));
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return null;
+    }
+    return new Function<>() {
+      @Override
+      @SneakyThrows
+      public Object apply(Object bean) {
+        return target.invokeExact(bean);
+      }
+    };
+  }
+
+}
@@ -19,112 +19,207 @@
  */
 package com.flowingcode.vaadin.addons.litetemplate;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.Optional;
 
 class PropertyEncoder {
 
-  private enum Context {
+  // Transient states, which are always at the top of the stack.
+  private static final byte NONE = 0;
+  private static final byte ESCAPED = 1;
+  private static final byte QUOT = 2;
+  private static final byte APOS = 3;
+  private static final byte TEMPLATE_HEAD = 4;
 
-    INITIAL,
-    ESCAPED,
-    QUOT,
-    APOS,
-    TEMPLATE_HEAD,
-    EXPRESSION,
-    NESTED_TEMPLATE;
+  /** The characters that change the state of the INITIAL context. */
+  private static final CharScanner INITIAL_SIGNIFICANT = CharScanner.of('$', '`', '\\');
 
-    private static Context pop(Deque<Context> stack) {
-      stack.pop();
-      return null;
+  // Flags returned by scan.
+  private static final int INVALID = -1;
+  private static final int WRAP = 1;
+  private static final int ESCAPE = 2;
+
+  /**
+   * Scans a property value, and appends it to {@code out} (if not {@code null}) with the backticks
+   * outside expressions escaped. Returns {@code INVALID} if the value is not a valid template, or
+   * the combination of {@code WRAP} (if the value must be wrapped in a template literal) and
+   * {@code ESCAPE} (if any character was escaped).
+   * <p>
+   * The stack of contexts is kept in primitive variables: below the INITIAL context there is a
+   * sequence of EXPRESSION and NESTED_TEMPLATE frames, one bit each, and at most one transient
+   * state on top of them.
+   */
+  private static int scan(String s, StringBuilder out) {
+    if (INITIAL_SIGNIFICANT.indexIn(s, 0) < 0) {
+      // the value is a plain string, which must be wrapped
+      if (out != null) {
+        out.append(s);
+      }
+      return WRAP;
     }
 
-    static Optional<String> encode(String s, String prefix, String suffix) {
-      StringBuilder sb = new StringBuilder();
-
-      int templateBegin = -1;
-      int templateEnd = -1;
-
-      Deque<Context> stack = new ArrayDeque<>();
-      stack.push(INITIAL);
-      for (int i = 0, n = s.length(); i < n; i++) {
-        char c = s.charAt(i);
-        sb.append(c);
-
-        switch (stack.peek()) {
-          case ESCAPED:
-            stack.pop();
-            continue;
-          case QUOT:
-            if (c == '\"') {
-              stack.pop();
-            }
-            continue;
-          case APOS:
-            if (c == '\'') {
-              stack.pop();
-            }
-            continue;
-          case TEMPLATE_HEAD:
-            assert c == '{';
-            stack.pop();
-            stack.push(EXPRESSION);
-            continue;
-          case INITIAL:
-            switch (c) {
-              case '`':
-                sb.setLength(sb.length() - 1);
-                sb.append('\\').append(c);
-                continue;
-              case '$': {
-                templateBegin = i;
-                break;
-              }
-            }
-            //fallthrough
-          case NESTED_TEMPLATE: {
-            Optional.ofNullable(switch (c) {
-              case '`' -> pop(stack);
-              case '$' -> (i < n - 1 && s.charAt(i + 1) == '{') ? TEMPLATE_HEAD : null;
-              case '\\' -> ESCAPED;
-              default -> null;
-            }).ifPresent(stack::push);
-            continue;
+    int result = 0;
+    int templateBegin = -1;
+    int templateEnd = -1;
+
+    byte state = NONE;
+    int depth = 0;
+    // frame bits of the first 64 levels (set for NESTED_TEMPLATE, clear for EXPRESSION)
+    long frames = 0;
+    // frame bits beyond 64 levels
+    long[] deepFrames = null;
+
+    int from = 0;
+    for (int i = 0, n = s.length(); i < n; i++) {
+      char c = s.charAt(i);
+
+      switch (state) {
+        case ESCAPED:
+          state = NONE;
+          continue;
+        case QUOT:
+          if (c == '\"') {
+            state = NONE;
           }
-          case EXPRESSION: {
-            Optional.ofNullable(switch(c) {
-              case '"' -> QUOT;
-              case '\'' -> APOS;
-              case '`' -> NESTED_TEMPLATE;
-              case '{' -> EXPRESSION;
-              case '}' -> {
-                templateEnd = i + 1;
-                yield pop(stack);
-              }
-              default -> null;
-            }).ifPresent(stack::push);
-            continue;
+          continue;
+        case APOS:
+          if (c == '\'') {
+            state = NONE;
           }
-          default:
-            throw new IllegalStateException();
+          continue;
+        case TEMPLATE_HEAD:
+          assert c == '{';
+          state = NONE;
+          deepFrames = push(deepFrames, depth, false);
+          frames &= ~bit(depth++);
+          continue;
+        default:
+          break;
+      }
+
+      if (depth == 0) {
+        // INITIAL
+        if (c == '`') {
+          result |= ESCAPE;
+          if (out != null) {
+            out.append(s, from, i).append('\\').append(c);
+            from = i + 1;
+          }
+          continue;
+        } else if (c == '$') {
+          templateBegin = i;
         }
       }
 
-      if (stack.peek() == INITIAL) {
-        String encoded = sb.toString();
-        if (templateBegin != 0 || templateEnd != s.length()) {
-          encoded = prefix + encoded + suffix;
+      if (depth == 0 || isNestedTemplate(frames, deepFrames, depth - 1)) {
+        // INITIAL or NESTED_TEMPLATE
+        switch (c) {
+          case '`' -> --depth;
+          case '$' -> {
+            if (i < n - 1 && s.charAt(i + 1) == '{') {
+              state = TEMPLATE_HEAD;
+            }
+          }
+          case '\\' -> state = ESCAPED;
+          default -> {
+          }
         }
-        return Optional.of(encoded);
       } else {
-        return Optional.empty();
+        // EXPRESSION
+        switch (c) {
+          case '"' -> state = QUOT;
+          case '\'' -> state = APOS;
+          case '`', '{' -> {
+            boolean nested = c == '`';
+            deepFrames = push(deepFrames, depth, nested);
+            frames = nested ? frames | bit(depth) : frames & ~bit(depth);
+            ++depth;
+          }
+          case '}' -> {
+            templateEnd = i + 1;
+            --depth;
+          }
+          default -> {
+          }
+        }
       }
     }
+
+    if (depth != 0 || state != NONE) {
+      return INVALID;
+    }
+    if (out != null) {
+      out.append(s, from, s.length());
+    }
+    if (templateBegin != 0 || templateEnd != s.length()) {
+      result |= WRAP;
+    }
+    return result;
+  }
+
+  private static long bit(int depth) {
+    return depth < 64 ? 1L << depth : 0;
+  }
+
+  private static boolean isNestedTemplate(long frames, long[] deepFrames, int depth) {
+    if (depth < 64) {
+      return (frames & 1L << depth) != 0;
+    } else {
+      return (deepFrames[(depth >> 6) - 1] & 1L << depth) != 0;
+    }
+  }
+
+  /** Records a frame beyond 64 levels, growing the array if needed. */
+  private static long[] push(long[] deepFrames, int depth, boolean nestedTemplate) {
+    if (depth < 64) {
+      return deepFrames;
+    }
+    int index = (depth >> 6) - 1;
+    if (deepFrames == null) {
+      deepFrames = new long[1];
+    } else if (index >= deepFrames.length) {
+      deepFrames = Arrays.copyOf(deepFrames, deepFrames.length * 2);
+    }
+    if (nestedTemplate) {
+      deepFrames[index] |= 1L << depth;
+    } else {
+      deepFrames[index] &= ~(1L << depth);
+    }
+    return deepFrames;
   }
 
+  /**
+   * Encodes a property value. Returns the value itself if it is a single expression that needs no
+   * escaping, or an empty optional if the value is not a valid template.
+   */
   public static Optional<String> encode(String value, String prefix, String suffix) {
-    return Context.encode(value, prefix, suffix);
+    int result = scan(value, null);
+    if (result == INVALID) {
+      return Optional.empty();
+    } else if (result == 0) {
+      return Optional.of(value);
+    } else {
+      StringBuilder sb = new StringBuilder(value.length() + prefix.length() + suffix.length() + 8);
+      encode(value, prefix, suffix, sb);
+      return Optional.of(sb.toString());
+    }
+  }
+
+  /**
+   * Appends the encoded property value to {@code out}. If the value is not a valid template, this
+   * method returns {@code false} and {@code out} is left unchanged.
+   */
+  static boolean encode(String value, String prefix, String suffix, StringBuilder out) {
+    int start = out.length();
+    int result = scan(value, out);
+    if (result == INVALID) {
+      out.setLength(start);
+      return false;
+    }
+    if ((result & WRAP) != 0) {
+      out.insert(start, prefix).append(suffix);
+    }
+    return true;
   }
 
 }
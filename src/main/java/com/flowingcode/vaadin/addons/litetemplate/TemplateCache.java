@@ -0,0 +1,101 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Application-wide cache of template layouts, keyed by the structural fingerprint of the template,
+ * and by the {@linkplain TemplateLayout#getKey() content} of the layout. Layouts are softly
+ * referenced, so that entries are evicted when memory is tight.
+ */
+final class TemplateCache {
+
+  private static final Map<Object, LayoutReference> cache =
+      new ConcurrentHashMap<>();
+
+  private static final ReferenceQueue<TemplateLayout> queue = new ReferenceQueue<>();
+
+  private static final class LayoutReference extends SoftReference<TemplateLayout> {
+
+    private final Object key;
+
+    LayoutReference(Object key, TemplateLayout layout) {
+      super(layout, queue);
+      this.key = key;
+    }
+  }
+
+  private TemplateCache() {}
+
+  /**
+   * Returns the layout for the given fingerprint. If no layout is cached, it is created by the
+   * given writer function.
+   */
+  static TemplateLayout getLayout(TemplateFingerprint fingerprint,
+      Function<TemplateFingerprint, TemplateLayout> writer) {
+    return get(fingerprint, () -> intern(writer.apply(fingerprint)));
+  }
+
+  /**
+   * Returns the cached layout with the same content as the given layout, or caches the given
+   * layout. This method is used for the layouts that are deserialized, whose fingerprint is not
+   * known.
+   */
+  static TemplateLayout intern(TemplateLayout layout) {
+    return get(layout.getKey(), () -> layout);
+  }
+
+  private static TemplateLayout get(Object key, Supplier<TemplateLayout> supplier) {
+    purge();
+
+    var ref = cache.get(key);
+    TemplateLayout layout = ref != null ? ref.get() : null;
+    if (layout == null) {
+      TemplateLayout created = supplier.get();
+      layout = cache.compute(key,
+          (k, r) -> r != null && r.get() != null ? r : new LayoutReference(k, created)).get();
+      if (layout == null) {
+        layout = created;
+      }
+    }
+    return layout;
+  }
+
+  /** Returns the number of cached layouts. */
+  static int size() {
+    purge();
+    return cache.size();
+  }
+
+  private static void purge() {
+    Reference<? extends TemplateLayout> ref;
+    while ((ref = queue.poll()) != null) {
+      cache.remove(((LayoutReference) ref).key, ref);
+    }
+  }
+
+}
@@ -0,0 +1,63 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import java.util.List;
+
+/**
+ * Structural fingerprint of a template, including its output mode. Two templates with equal
+ * fingerprints are written into the same template expression and binding layout.
+ */
+final class TemplateFingerprint {
+
+  private final List<TemplateToken> tokens;
+
+  private final boolean minified;
+
+  private final int hash;
+
+  TemplateFingerprint(List<TemplateToken> tokens, boolean minified) {
+    this.tokens = List.copyOf(tokens);
+    this.minified = minified;
+    hash = 31 * this.tokens.hashCode() + Boolean.hashCode(minified);
+  }
+
+  List<TemplateToken> getTokens() {
+    return tokens;
+  }
+
+  boolean isMinified() {
+    return minified;
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj == this || obj instanceof TemplateFingerprint other
+        && hash == other.hash
+        && minified == other.minified
+        && tokens.equals(other.tokens);
+  }
+
+}
@@ -0,0 +1,110 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Template expression and binding layout written from a {@link TemplateFingerprint}. A layout
+ * does not reference any value provider or handler, thus it can be shared by every renderer whose
+ * template has the same structure.
+ */
+@Getter
+@SuppressWarnings("serial")
+final class TemplateLayout implements Serializable {
+
+  /** Describes an event listener that was compiled into the template. */
+  record Listener(String eventType, String function, String arguments) implements Serializable {
+  }
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final String templateExpression;
+
+  /** The names of the generated properties, indexed by slot. */
+  private final List<String> propertyNames;
+
+  /** The names of the generated functions, indexed by slot. */
+  private final List<String> functionNames;
+
+  private final List<Listener> listeners;
+
+  /** The item properties referenced by the template expression. */
+  private final ItemReferences itemReferences;
+
+  TemplateLayout(String templateExpression, List<String> propertyNames,
+      List<String> functionNames, List<Listener> listeners) {
+    this.templateExpression = templateExpression;
+    this.propertyNames = List.copyOf(propertyNames);
+    this.functionNames = List.copyOf(functionNames);
+    this.listeners = List.copyOf(listeners);
+    itemReferences = ItemReferences.of(templateExpression);
+  }
+
+  /**
+   * Returns a key that is equal for the layouts with the same content. The key references the
+   * fields of this layout, but not the layout itself.
+   */
+  Object getKey() {
+    return List.of(templateExpression, propertyNames, functionNames, listeners);
+  }
+
+  /** Replaces a deserialized layout with the cached layout of the same content, if any. */
+  private Object readResolve() {
+    return TemplateCache.intern(this);
+  }
+
+  /**
+   * Writes a template expression to the given stream, encoded in UTF-8. The expression is encoded
+   * in chunks, without copying it into an intermediate array of its full size.
+   */
+  static void write(String templateExpression, OutputStream out) throws IOException {
+    CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    CharBuffer in = CharBuffer.wrap(templateExpression);
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    CoderResult result;
+    do {
+      result = encoder.encode(in, buffer, true);
+      drain(buffer, out);
+    } while (result.isOverflow());
+    do {
+      result = encoder.flush(buffer);
+      drain(buffer, out);
+    } while (result.isOverflow());
+  }
+
+  private static void drain(ByteBuffer buffer, OutputStream out) throws IOException {
+    out.write(buffer.array(), 0, buffer.position());
+    buffer.clear();
+  }
+
+}
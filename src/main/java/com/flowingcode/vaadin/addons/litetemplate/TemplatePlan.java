@@ -0,0 +1,325 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.flowingcode.vaadin.jsonmigration.JsonMigration;
+import com.vaadin.flow.data.renderer.LitRenderer;
+import com.vaadin.flow.function.SerializableBiConsumer;
+import com.vaadin.flow.function.ValueProvider;
+import com.vaadin.flow.server.Version;
+import elemental.json.JsonArray;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import lombok.Getter;
+import lombok.SneakyThrows;
+
+/**
+ * Compiled form of the template components of a {@link LiteRenderer}. A plan combines the shared
+ * {@link TemplateLayout} of the template with the value providers and handlers that are bound to
+ * its slots, and it does not reference any {@code Component} or {@code Element} of the template.
+ */
+@SuppressWarnings("serial")
+final class TemplatePlan<SOURCE> implements Serializable {
+
+  @Getter
+  private final TemplateLayout layout;
+
+  /**
+   * A property whose value is computed in the client by a javascript expression.
+   *
+   * @param expression the javascript expression
+   * @param dependencies the properties that are used by the expression
+   */
+  record ComputedProperty(String expression, List<String> dependencies) implements Serializable {
+  }
+
+  /**
+   * A {@code LitRenderer} created from a plan, with its template expression (where the computed
+   * properties are expanded and the properties are renamed) and the value providers and functions
+   * that it is configured with. The value providers are those of the sent properties, before they
+   * are projected.
+   */
+  record Rendered<SOURCE>(LitRenderer<SOURCE> litRenderer, String templateExpression,
+      Map<String, ValueProvider<SOURCE, ?>> properties,
+      Map<String, SerializableBiConsumer<SOURCE, JsonArray>> functions) {
+
+    /**
+     * Returns whether this renderer has the same template, value providers and functions as
+     * another one, so that the items rendered by either of them have the same data.
+     */
+    boolean isEquivalent(Rendered<?> other) {
+      return templateExpression.equals(other.templateExpression)
+          && properties.equals(other.properties)
+          && functions.equals(other.functions);
+    }
+  }
+
+  private final List<ValueProvider<SOURCE, ?>> properties;
+  private final List<SerializableBiConsumer<SOURCE, JsonArray>> functions;
+
+  TemplatePlan(TemplateLayout layout,
+      List<ValueProvider<SOURCE, ?>> properties,
+      List<SerializableBiConsumer<SOURCE, JsonArray>> functions) {
+    this.layout = layout;
+    this.properties = new ArrayList<>(properties);
+    this.functions = new ArrayList<>(functions);
+  }
+
+  String getTemplateExpression() {
+    return layout.getTemplateExpression();
+  }
+
+  List<TemplateLayout.Listener> getListeners() {
+    return layout.getListeners();
+  }
+
+  /** Returns the generated properties, in the order they appear in the template. */
+  Map<String, ValueProvider<SOURCE, ?>> getProperties() {
+    return zip(layout.getPropertyNames(), properties);
+  }
+
+  /** Returns the generated functions, in the order they appear in the template. */
+  Map<String, SerializableBiConsumer<SOURCE, JsonArray>> getFunctions() {
+    return zip(layout.getFunctionNames(), functions);
+  }
+
+  private static <T> Map<String, T> zip(List<String> names, List<T> values) {
+    Map<String, T> map = new LinkedHashMap<>();
+    for (int i = 0; i < values.size(); i++) {
+      map.put(names.get(i), values.get(i));
+    }
+    return Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Creates a {@code LitRenderer} for this plan. The renderer properties that are not referenced
+   * by the template are not registered, so that they are not evaluated and sent for each item. If
+   * the template only accesses members of a property (as in <code>${item.name.member}</code>), a
+   * bean value is projected to those members.
+   *
+   * @param rendererProperties the properties that were registered in the {@code LiteRenderer}.
+   * @param computedProperties the computed properties that were registered in the
+   *        {@code LiteRenderer}, which are expanded into the expressions that reference them.
+   * @param strict whether to fail if any renderer property is not referenced by the template.
+   * @param shortNames whether to send the properties with the shortest possible names, instead of
+   *        their own names. Names are not shortened if the template accesses the item other than
+   *        by member accesses with a literal name.
+   * @throws IllegalStateException if a renderer property or computed property has the name of a
+   *         generated property, if {@code strict} is set and a renderer property is not referenced
+   *         by the template, or if the computed properties reference each other in a cycle.
+   */
+  Rendered<SOURCE> createRenderer(Map<String, ValueProvider<SOURCE, ?>> rendererProperties,
+      Map<String, ComputedProperty> computedProperties, Class<SOURCE> beanType, boolean strict,
+      boolean shortNames) {
+    List<String> generated = new ArrayList<>();
+    for (String name : layout.getPropertyNames()) {
+      if (rendererProperties.containsKey(name) || computedProperties.containsKey(name)) {
+        generated.add(name);
+      }
+    }
+    if (!generated.isEmpty()) {
+      throw new IllegalStateException(
+          "Properties conflict with generated properties: " + String.join(", ", generated));
+    }
+
+    String template = getTemplateExpression();
+    Set<String> dependencies = new HashSet<>();
+    if (!computedProperties.isEmpty()) {
+      template = expand(template, computedProperties, dependencies);
+    }
+
+    var references = computedProperties.isEmpty()
+        ? layout.getItemReferences()
+        : ItemReferences.of(template);
+    Predicate<String> isReferenced =
+        name -> references.isReferenced(name) || dependencies.contains(name);
+    if (beanType != null) {
+      rendererProperties =
+          bind(beanType, references, dependencies, rendererProperties, layout.getPropertyNames());
+    }
+    if (strict) {
+      var unreferenced = rendererProperties.keySet().stream()
+          .filter(isReferenced.negate()).sorted().toList();
+      if (!unreferenced.isEmpty()) {
+        throw new IllegalStateException(
+            "Properties not referenced by the template: " + String.join(", ", unreferenced));
+      }
+    }
+
+    // constant properties are written into the expressions that reference them
+    Map<String, String> replacements = new HashMap<>();
+    rendererProperties.forEach((name, valueProvider) -> {
+      if (valueProvider instanceof ConstantValueProvider<?, ?> constant
+          && constant.isInlinable()) {
+        replacements.put(name, "(" + constant.toLiteral() + ")");
+      }
+    });
+
+    Map<String, ValueProvider<SOURCE, ?>> properties = new LinkedHashMap<>();
+    Map<String, ValueProvider<SOURCE, ?>> sources = new LinkedHashMap<>();
+    rendererProperties.forEach((name, valueProvider) -> {
+      if (references.isDynamic()
+          || isReferenced.test(name) && !replacements.containsKey(name)) {
+        // only the members accessed by the template are sent, if the value is a bean
+        var projection = dependencies.contains(name) ? null : references.getProjection(name);
+        properties.put(name, projection != null ? projection.apply(valueProvider) : valueProvider);
+        sources.put(name, valueProvider);
+      }
+    });
+    properties.putAll(getProperties());
+    sources.putAll(getProperties());
+
+    Map<String, String> wireNames = new HashMap<>();
+    if (shortNames && !references.isDynamic()) {
+      for (String name : properties.keySet()) {
+        String wireName = shortName(wireNames.size());
+        wireNames.put(name, wireName);
+        replacements.put(name, "item." + wireName);
+      }
+    }
+
+    if (!replacements.isEmpty()) {
+      template = ItemReferences.rewrite(template, replacements::get);
+    }
+
+    var renderer = LitRenderer.<SOURCE>of(template);
+    var functions = getFunctions();
+    functions.forEach((n, v) -> withFunction(renderer, n, v));
+    properties.forEach((name, valueProvider) -> renderer
+        .withProperty(wireNames.getOrDefault(name, name), valueProvider));
+    return new Rendered<>(renderer, template, Collections.unmodifiableMap(sources), functions);
+  }
+
+  /**
+   * Adds a value provider for each property referenced by the template that has not been
+   * registered, and that is a record component or bean property of the given class. Members of the
+   * bound properties (as in <code>${item.address.city}</code>) are sent through the projection of
+   * the property. The generated properties are never bound.
+   */
+  private static <SOURCE> Map<String, ValueProvider<SOURCE, ?>> bind(Class<SOURCE> beanType,
+      ItemReferences references, Set<String> dependencies,
+      Map<String, ValueProvider<SOURCE, ?>> rendererProperties, List<String> generated) {
+    Map<String, ValueProvider<SOURCE, ?>> properties = new HashMap<>(rendererProperties);
+    Stream.concat(references.getProperties().stream(), dependencies.stream())
+        .filter(name -> !properties.containsKey(name) && !generated.contains(name))
+        .forEach(name -> {
+          var valueProvider = PropertyAccessors.valueProvider(beanType, name);
+          if (valueProvider != null) {
+            properties.put(name, valueProvider);
+          }
+        });
+    return properties;
+  }
+
+  /**
+   * Replaces the references to computed properties with their expressions, until no reference is
+   * left. The declared dependencies of the expanded properties are added to {@code dependencies}.
+   */
+  private static String expand(String template, Map<String, ComputedProperty> computedProperties,
+      Set<String> dependencies) {
+    for (int pass = 0;; pass++) {
+      Set<String> expanded = new HashSet<>();
+      String rewritten = ItemReferences.rewrite(template, name -> {
+        var computed = computedProperties.get(name);
+        if (computed == null) {
+          return null;
+        }
+        expanded.add(name);
+        return "(" + computed.expression() + ")";
+      });
+      if (expanded.isEmpty()) {
+        return template;
+      }
+      if (pass == computedProperties.size()) {
+        throw new IllegalStateException("Computed properties reference each other in a cycle: "
+            + String.join(", ", new TreeSet<>(expanded)));
+      }
+      expanded.forEach(name -> dependencies.addAll(computedProperties.get(name).dependencies()));
+      template = rewritten;
+    }
+  }
+
+  private static final String NAME_START_CHARS =
+      "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+  private static final String NAME_PART_CHARS = NAME_START_CHARS + "0123456789";
+
+  /**
+   * Returns the {@code index}-th shortest identifier, in an enumeration where names start with a
+   * letter and continue with letters or digits.
+   */
+  private static String shortName(int index) {
+    StringBuilder sb = new StringBuilder();
+    int start = NAME_START_CHARS.length();
+    int part = NAME_PART_CHARS.length();
+    // the number of names with the current length
+    long count = start;
+    long i = index;
+    while (i >= count) {
+      i -= count;
+      count *= part;
+    }
+    for (long c = count / start; c > 1; c /= part) {
+      sb.append(NAME_PART_CHARS.charAt((int) (i % part)));
+      i /= part;
+    }
+    sb.append(NAME_START_CHARS.charAt((int) i));
+    return sb.reverse().toString();
+  }
+
+  @SneakyThrows
+  private static <SOURCE> LitRenderer<SOURCE> withFunction(LitRenderer<SOURCE> renderer,
+      String name, SerializableBiConsumer<SOURCE, JsonArray> handler) {
+    SerializableBiConsumer<SOURCE, ?> c = handler;
+    if (Version.getMajorVersion() >= 25) {
+      c = (source, array) -> handler.accept(source,
+          (JsonArray) JsonMigration.convertToJsonValue(array));
+    }
+    return (LitRenderer<SOURCE>) LitRenderer_withFunction.invokeExact(renderer, name, c);
+  }
+
+  private static final MethodHandle LitRenderer_withFunction = lookup_withFunction();
+
+  @SneakyThrows
+  private static MethodHandle lookup_withFunction() {
+    MethodHandles.Lookup lookup = MethodHandles.lookup();
+    MethodType methodType = MethodType.methodType(
+        LitRenderer.class,
+        String.class,
+        SerializableBiConsumer.class
+    );
+
+    return lookup.findVirtual(LitRenderer.class, "withFunction", methodType);
+  }
+
+}
@@ -0,0 +1,70 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+/**
+ * Structural element of a template. The sequence of tokens produced from the template components
+ * describes the template without referencing any component, value provider or handler. Binding
+ * slots refer to the index of the value provider (or handler) in the compiled plan.
+ */
+sealed interface TemplateToken {
+
+  /** The start of an element. */
+  record Open(String tag) implements TemplateToken {
+  }
+
+  /** The end of the element that was most recently opened. */
+  enum Close implements TemplateToken {
+    INSTANCE
+  }
+
+  /** A text node. */
+  record Text(String text, boolean interpolation) implements TemplateToken {
+  }
+
+  /** A static attribute. An empty value denotes a boolean attribute. */
+  record Attribute(String name, String value, boolean interpolation) implements TemplateToken {
+  }
+
+  /** A static attribute whose value is given as a javascript literal. */
+  record AttributeLiteral(String name, String literal) implements TemplateToken {
+  }
+
+  /** An attribute whose value is bound to a property slot. */
+  record AttributeBinding(String name, int slot) implements TemplateToken {
+  }
+
+  /** A static string property. */
+  record Property(String name, String value, boolean interpolation) implements TemplateToken {
+  }
+
+  /** A static property whose value is given as a javascript literal. */
+  record PropertyLiteral(String name, String literal) implements TemplateToken {
+  }
+
+  /** A property whose value is bound to a property slot. */
+  record PropertyBinding(String name, int slot) implements TemplateToken {
+  }
+
+  /** An event listener bound to a function slot. */
+  record Listener(String eventType, String arguments, int slot) implements TemplateToken {
+  }
+
+}
@@ -0,0 +1,346 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 - 2026 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate;
+
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Attribute;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.AttributeBinding;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.AttributeLiteral;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Close;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Listener;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Open;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Property;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.PropertyBinding;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.PropertyLiteral;
+import com.flowingcode.vaadin.addons.litetemplate.TemplateToken.Text;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/** Writes the template expression and binding layout of a {@link TemplateFingerprint}. */
+final class TemplateWriter {
+
+  /** Characters that are escaped when writing a value into a given context. */
+  private enum Escape {
+    /** Replaceable character data (text content). */
+    TEXT('&', '<'),
+    /** Single-quoted attribute value. */
+    SINGLE_QUOTED('&'),
+    /** Double-quoted attribute value. */
+    DOUBLE_QUOTED('&', '"'),
+    /** Content of a javascript template literal. */
+    TEMPLATE_LITERAL('`', '$');
+
+    private final CharScanner scanner;
+
+    Escape(char... chars) {
+      scanner = CharScanner.of(chars);
+    }
+
+    String replace(char c) {
+      return switch (this) {
+        case TEXT -> c == '&' ? "&amp;" : c == '<' ? "&lt;" : null;
+        case SINGLE_QUOTED -> c == '&' ? "&amp;" : null;
+        case DOUBLE_QUOTED -> c == '&' ? "&amp;" : c == '"' ? "&quot;" : null;
+        case TEMPLATE_LITERAL -> c == '`' ? "\\`" : c == '$' ? "\\$" : null;
+      };
+    }
+  }
+
+  private final StringBuilder sb;
+  private final List<String> propertyNames = new ArrayList<>();
+  private final List<String> functionNames = new ArrayList<>();
+  private final List<TemplateLayout.Listener> listeners = new ArrayList<>();
+
+  private final Deque<String> tags = new ArrayDeque<>();
+  private boolean startTag;
+
+  /**
+   * Whether the output is minified. Minified output is not indented, and whitespace in text is
+   * collapsed except within {@code pre} and {@code textarea} elements.
+   */
+  private final boolean minified;
+
+  /** The number of open elements where whitespace is preserved. */
+  private int preformatted;
+
+  private TemplateWriter(int capacity, boolean minified) {
+    sb = new StringBuilder(capacity);
+    this.minified = minified;
+  }
+
+  static TemplateLayout write(TemplateFingerprint fingerprint) {
+    var tokens = fingerprint.getTokens();
+    return new TemplateWriter(estimateLength(tokens), fingerprint.isMinified()).write(tokens);
+  }
+
+  private static boolean isPreformatted(String tag) {
+    return tag.equals("pre") || tag.equals("textarea");
+  }
+
+  /** Estimates the length of the template expression, so that the buffer is not resized. */
+  private static int estimateLength(List<TemplateToken> tokens) {
+    int length = 1;
+    for (TemplateToken token : tokens) {
+      length += 16;
+      if (token instanceof Text text) {
+        length += text.text().length();
+      } else if (token instanceof Attribute attribute) {
+        length += attribute.name().length() + attribute.value().length();
+      } else if (token instanceof Property property) {
+        length += property.name().length() + property.value().length();
+      }
+    }
+    return length;
+  }
+
+  private TemplateLayout write(List<TemplateToken> tokens) {
+    for (TemplateToken token : tokens) {
+      if (token instanceof Open open) {
+        endStartTag();
+        indent();
+        sb.append('<').append(open.tag());
+        tags.push(open.tag());
+        if (isPreformatted(open.tag())) {
+          ++preformatted;
+        }
+        startTag = true;
+      } else if (token == Close.INSTANCE) {
+        String tag = tags.pop();
+        if (isPreformatted(tag)) {
+          --preformatted;
+        }
+        if (startTag) {
+          endStartTag();
+        } else {
+          indent();
+        }
+        sb.append("</").append(tag).append('>');
+      } else if (token instanceof Text text) {
+        endStartTag();
+        writeText(text);
+      } else if (token instanceof AttributeBinding attribute) {
+        writeAttribute(attribute);
+      } else if (token instanceof Attribute attribute) {
+        writeAttribute(attribute);
+      } else if (token instanceof AttributeLiteral attribute) {
+        writeAttribute(attribute);
+      } else if (token instanceof PropertyBinding property) {
+        writeProperty(property);
+      } else if (token instanceof Property property) {
+        writeProperty(property);
+      } else if (token instanceof PropertyLiteral property) {
+        writeProperty(property);
+      } else if (token instanceof Listener listener) {
+        writeEventListener(listener);
+      } else {
+        throw new IllegalArgumentException();
+      }
+    }
+
+    if (!minified) {
+      sb.append('\n');
+    }
+    return new TemplateLayout(sb.toString(), propertyNames, functionNames, listeners);
+  }
+
+  private void indent() {
+    if (minified) {
+      return;
+    }
+    sb.append('\n');
+    for (int i = tags.size(); i >= 0; i--) {
+      sb.append("  ");
+    }
+  }
+
+  private void endStartTag() {
+    if (startTag) {
+      sb.append('>');
+      startTag = false;
+    }
+  }
+
+  private String propertyName(int slot) {
+    while (propertyNames.size() <= slot) {
+      propertyNames.add("property" + propertyNames.size());
+    }
+    return propertyNames.get(slot);
+  }
+
+  private String functionName(int slot) {
+    while (functionNames.size() <= slot) {
+      functionNames.add("function" + functionNames.size());
+    }
+    return functionNames.get(slot);
+  }
+
+  private void writeText(Text token) {
+    String text = token.text();
+    if (minified && preformatted == 0 && !text.contains("${")) {
+      text = collapseWhitespace(text);
+    }
+    indent();
+    if (token.interpolation() || !text.contains("${") && text.indexOf('`') < 0) {
+      appendReplaceableCharacterData(text);
+    } else {
+      appendTemplateLiteral(text);
+    }
+  }
+
+  private void writeAttribute(AttributeBinding token) {
+    sb.append('\s').append(token.name());
+    sb.append("=${item.").append(propertyName(token.slot())).append('}');
+  }
+
+  private void writeAttribute(Attribute token) {
+    sb.append('\s').append(token.name());
+    String value = token.value();
+    if (!value.isEmpty()) {
+      sb.append('=');
+      if (token.interpolation()) {
+        appendAttributeValueSpecification(value);
+      } else {
+        appendTemplateLiteral(value);
+      }
+    }
+  }
+
+  private void writeAttribute(AttributeLiteral token) {
+    sb.append('\s').append(token.name());
+    sb.append("=${").append(token.literal()).append('}');
+  }
+
+  private void writeProperty(Property token) {
+    sb.append(" .").append(token.name()).append('=');
+    if (token.interpolation()) {
+      appendPropertyValue(token.value(), "${`", "`}");
+    } else {
+      appendTemplateLiteral(token.value());
+    }
+  }
+
+  private void writeProperty(PropertyLiteral token) {
+    sb.append(" .").append(token.name()).append('=');
+    sb.append("${").append(token.literal()).append('}');
+  }
+
+  private void writeProperty(PropertyBinding token) {
+    sb.append(" .").append(token.name());
+    sb.append("=${item.").append(propertyName(token.slot())).append('}');
+  }
+
+  private void writeEventListener(Listener token) {
+    String functionName = functionName(token.slot());
+    listeners.add(new TemplateLayout.Listener(token.eventType(), functionName,
+        token.arguments()));
+
+    sb.append(" @").append(token.eventType()).append("=${(");
+    if (token.arguments() != null) {
+      sb.append("event");
+    }
+    sb.append(")=>").append(functionName).append('(');
+    if (token.arguments() != null) {
+      sb.append(token.arguments());
+    }
+    sb.append(")}");
+  }
+
+  private void appendAttributeValueSpecification(String value) {
+    if (value.contains("${")) {
+      appendPropertyValue(value, "\"", "\"");
+    } else if (value.indexOf('"') >= 0 && value.indexOf('\'') < 0) {
+      sb.append('\'');
+      appendEscaped(value, 0, Escape.SINGLE_QUOTED);
+      sb.append('\'');
+    } else {
+      sb.append('"');
+      appendEscaped(value, 0, Escape.DOUBLE_QUOTED);
+      sb.append('"');
+    }
+  }
+
+  private void appendReplaceableCharacterData(String value) {
+    if (value.startsWith("\\${")) {
+      appendEscaped(value, 1, Escape.TEXT);
+    } else if (value.startsWith("${")) {
+      sb.append(value);
+    } else {
+      appendEscaped(value, 0, Escape.TEXT);
+    }
+  }
+
+  private void appendTemplateLiteral(String value) {
+    sb.append("${`");
+    appendEscaped(value, 0, Escape.TEMPLATE_LITERAL);
+    sb.append("`}");
+  }
+
+  private void appendPropertyValue(String value, String prefix, String suffix) {
+    if (!PropertyEncoder.encode(value, prefix, suffix, sb)) {
+      appendTemplateLiteral(value);
+    }
+  }
+
+  /** Replaces each run of whitespace characters with a single space. */
+  private static String collapseWhitespace(String text) {
+    StringBuilder collapsed = null;
+    for (int i = 0, n = text.length(); i < n; i++) {
+      char c = text.charAt(i);
+      if (isWhitespace(c)) {
+        int end = i + 1;
+        while (end < n && isWhitespace(text.charAt(end))) {
+          end++;
+        }
+        if (c != ' ' || end > i + 1) {
+          if (collapsed == null) {
+            collapsed = new StringBuilder(n).append(text, 0, i);
+          }
+          collapsed.append(' ');
+        } else if (collapsed != null) {
+          collapsed.append(c);
+        }
+        i = end - 1;
+      } else if (collapsed != null) {
+        collapsed.append(c);
+      }
+    }
+    return collapsed != null ? collapsed.toString() : text;
+  }
+
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+  }
+
+  /**
+   * Appends {@code value}, starting at {@code start}, replacing the characters that must be escaped
+   * in the given context. Unescaped runs are copied as a whole.
+   */
+  private void appendEscaped(String value, int start, Escape escape) {
+    var cursor = escape.scanner.cursor(value);
+    int from = start;
+    for (int i = cursor.indexFrom(from); i >= 0; i = cursor.indexFrom(from)) {
+      sb.append(value, from, i).append(escape.replace(value.charAt(i)));
+      from = i + 1;
+    }
+    sb.append(value, from, value.length());
+  }
+
+}
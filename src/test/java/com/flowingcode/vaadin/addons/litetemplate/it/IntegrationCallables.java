@@ -21,6 +21,7 @@ package com.flowingcode.vaadin.addons.litetemplate.it;
 
 import com.flowingcode.vaadin.addons.litetemplate.LiteRenderer;
 import com.flowingcode.vaadin.testbench.rpc.RmiCallable;
+import java.util.List;
 
 public interface IntegrationCallables extends RmiCallable {
 
@@ -28,4 +29,10 @@ public interface IntegrationCallables extends RmiCallable {
 
   Item getItem();
 
+  void updateComputedProperty(String name, String expression);
+
+  void renderBatch(int size);
+
+  List<Integer> getBatchSizes();
+
 }
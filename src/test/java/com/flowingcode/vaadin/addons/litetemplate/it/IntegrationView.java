@@ -26,6 +26,10 @@ import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.router.Route;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Route(IntegrationView.ROUTE)
 public class IntegrationView extends Div implements IntegrationCallables {
@@ -34,6 +38,11 @@ public class IntegrationView extends Div implements IntegrationCallables {
 
   Grid<Item> grid = new Grid<>();
 
+  LiteRenderer<Item> renderer;
+
+  /** The number of items of each call to the batch value provider. */
+  List<Integer> batchSizes = new ArrayList<>();
+
   public IntegrationView() {
     add(grid);
   }
@@ -50,6 +59,7 @@ public class IntegrationView extends Div implements IntegrationCallables {
     grid.setItems(item);
     grid.addColumn(renderer);
     System.out.println(renderer);
+    this.renderer = renderer;
   }
 
   @Override
@@ -57,4 +67,28 @@ public class IntegrationView extends Div implements IntegrationCallables {
     return grid.getListDataView().getItem(0);
   }
 
+  @Override
+  public void updateComputedProperty(String name, String expression) {
+    renderer.withComputedProperty(name, expression).updateRenderings();
+  }
+
+  @Override
+  public void renderBatch(int size) {
+    batchSizes.clear();
+    grid.removeAllColumns();
+    grid.setItems(IntStream.range(0, size)
+        .mapToObj(i -> Item.builder().foo("foo" + i).build())
+        .toList());
+    grid.addColumn(LiteRenderer.<Item>of(new Div("${item.foo}"))
+        .withProperty("foo", LiteRenderer.cached(LiteRenderer.<Item, String>batch(items -> {
+          batchSizes.add(items.size());
+          return items.stream().collect(Collectors.toMap(item -> item, Item::foo));
+        }))));
+  }
+
+  @Override
+  public List<Integer> getBatchSizes() {
+    return batchSizes;
+  }
+
 }
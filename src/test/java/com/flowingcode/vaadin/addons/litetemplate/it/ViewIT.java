@@ -29,6 +29,7 @@ import com.vaadin.flow.component.grid.testbench.GridElement;
 import com.vaadin.flow.component.grid.testbench.GridTHTDElement;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.testbench.TestBenchElement;
+import java.util.List;
 import org.junit.Test;
 
 public class ViewIT extends AbstractViewTest implements HasRpcSupport {
@@ -84,4 +85,23 @@ public class ViewIT extends AbstractViewTest implements HasRpcSupport {
     assertThat($server.getItem().foo(), is("DIV"));
   }
 
+  @Test
+  public void testUpdateRenderings() {
+    $server.render(ITEM,
+        LiteRenderer.<Item>of(new Div("${item.text}"))
+        .withProperty("foo", Item::foo)
+        .withProperty("bar", Item::bar)
+        .withComputedProperty("text", "item.foo"));
+    assertThat(body().getText().trim(), equalTo("foo"));
+    $server.updateComputedProperty("text", "item.bar");
+    assertThat(body().getText().trim(), equalTo("bar"));
+  }
+
+  @Test
+  public void testBatchValueProvider() {
+    $server.renderBatch(10);
+    assertThat(cell().getText().trim(), equalTo("foo0"));
+    assertThat($server.getBatchSizes(), equalTo(List.of(10)));
+  }
+
 }
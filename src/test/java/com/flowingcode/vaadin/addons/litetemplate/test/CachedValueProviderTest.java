@@ -0,0 +1,122 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate.test;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import com.flowingcode.vaadin.addons.litetemplate.CachedValueProvider;
+import com.flowingcode.vaadin.addons.litetemplate.LiteRenderer;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class CachedValueProviderTest {
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  private final CachedValueProvider<StringBuilder, String> provider =
+      LiteRenderer.cached(item -> {
+        calls.incrementAndGet();
+        return item.toString();
+      });
+
+  @Test
+  public void testCachedByIdentity() {
+    StringBuilder foo = new StringBuilder("foo");
+    assertThat(provider.apply(foo), is("foo"));
+    assertThat(provider.apply(foo), is("foo"));
+    assertThat(provider.apply(new StringBuilder("foo")), is("foo"));
+    assertThat(calls.get(), is(2));
+    assertThat(provider.getHitCount(), is(1L));
+    assertThat(provider.getMissCount(), is(2L));
+  }
+
+  @Test
+  public void testItemsAreWeaklyReferenced() throws Exception {
+    StringBuilder item = new StringBuilder("foo");
+    provider.apply(item);
+    assertThat(provider.size(), is(1));
+
+    Field field = CachedValueProvider.class.getDeclaredField("cache");
+    field.setAccessible(true);
+    Object key = ((Map<?, ?>) field.get(provider)).keySet().iterator().next();
+    assertThat(key, instanceOf(WeakReference.class));
+    assertThat(((WeakReference<?>) key).get(), sameInstance(item));
+
+    // clears and enqueues the key, as the garbage collector does when the item is collected
+    ((WeakReference<?>) key).enqueue();
+    assertThat(provider.size(), is(0));
+  }
+
+  @Test
+  public void testCachedByKey() {
+    provider.withKey(StringBuilder::toString);
+    provider.apply(new StringBuilder("foo"));
+    provider.apply(new StringBuilder("foo"));
+    assertThat(calls.get(), is(1));
+  }
+
+  @Test
+  public void testVersion() {
+    StringBuilder foo = new StringBuilder("foo");
+    provider.withVersion(StringBuilder::length);
+    provider.apply(foo);
+    foo.append("bar");
+    assertThat(provider.apply(foo), is("foobar"));
+    assertThat(provider.apply(foo), is("foobar"));
+    assertThat(calls.get(), is(2));
+  }
+
+  @Test
+  public void testMaximumSize() {
+    provider.withMaximumSize(1);
+    StringBuilder foo = new StringBuilder("foo");
+    provider.apply(foo);
+    provider.apply(new StringBuilder("bar"));
+    provider.apply(foo);
+    assertThat(calls.get(), is(3));
+    assertThat(provider.size(), is(1));
+  }
+
+  @Test
+  public void testExpiration() {
+    provider.withExpiration(Duration.ZERO);
+    StringBuilder foo = new StringBuilder("foo");
+    provider.apply(foo);
+    provider.apply(foo);
+    assertThat(calls.get(), is(2));
+  }
+
+  @Test
+  public void testHitRate() {
+    provider.withSoftValues();
+    StringBuilder foo = new StringBuilder("foo");
+    for (int i = 0; i < 4; i++) {
+      provider.apply(foo);
+    }
+    assertThat(provider.getHitRate(), is(0.75));
+  }
+
+}
@@ -0,0 +1,70 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate.test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.SneakyThrows;
+import org.junit.Test;
+
+public class ItemReferencesTest {
+
+  private static final Method rewrite =
+      PropertyEncoderTest.lookupMethod("ItemReferences", "rewrite", String.class, Function.class);
+
+  @SneakyThrows
+  private static String rewrite(String template) {
+    Map<String, String> replacements = Map.of("foo", "item.a", "bar", "(1)");
+    return (String) rewrite.invoke(null, template, (Function<String, String>) replacements::get);
+  }
+
+  @Test
+  public void testRewrite() {
+    assertThat(rewrite("${item.foo}"), is("${item.a}"));
+    assertThat(rewrite("<a title=${item.foo + item.bar}>"), is("<a title=${item.a + (1)}>"));
+    assertThat(rewrite("${item?.foo} ${item.baz}"), is("${item.a} ${item.baz}"));
+    assertThat(rewrite("${{x: item.foo}.x}"), is("${{x: item.a}.x}"));
+    assertThat(rewrite("${`${item.foo}`}"), is("${`${item.a}`}"));
+  }
+
+  @Test
+  public void testLiteralTextIsNotRewritten() {
+    String s;
+    assertThat(rewrite(s = "item.foo"), is(s));
+    assertThat(rewrite(s = "\\${item.foo}"), is(s));
+    assertThat(rewrite(s = "${`\\${item.foo}`}"), is(s));
+    assertThat(rewrite(s = "${`item.foo`}"), is(s));
+    assertThat(rewrite(s = "${'item.foo'}"), is(s));
+    assertThat(rewrite(s = "${\"item.foo\"}"), is(s));
+    assertThat(rewrite(s = "${'\\'item.foo'}"), is(s));
+  }
+
+  @Test
+  public void testQuotedBraces() {
+    assertThat(rewrite("${'}' + item.foo}"), is("${'}' + item.a}"));
+    assertThat(rewrite("${\"{\"} item.foo ${item.foo}"), is("${\"{\"} item.foo ${item.a}"));
+    assertThat(rewrite("${`}` + item.foo}"), is("${`}` + item.a}"));
+    assertThat(rewrite("${`${'}'}` + item.foo}"), is("${`${'}'}` + item.a}"));
+  }
+
+}
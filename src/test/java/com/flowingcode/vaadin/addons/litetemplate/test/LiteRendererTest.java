@@ -20,23 +20,65 @@
 
 package com.flowingcode.vaadin.addons.litetemplate.test;
 
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import com.flowingcode.vaadin.addons.litetemplate.LiteComponent;
 import com.flowingcode.vaadin.addons.litetemplate.LiteRenderer;
 import com.flowingcode.vaadin.addons.litetemplate.Person;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Pre;
+import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.data.provider.DataGenerator;
+import com.vaadin.flow.data.renderer.Rendering;
+import com.vaadin.flow.function.SerializableBiConsumer;
+import com.vaadin.flow.function.ValueProvider;
 import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
 import elemental.json.JsonValue;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.junit.Test;
 
 public class LiteRendererTest  {
 
+  public record Address(String city, String zip) {
+  }
+
+  public static class Customer {
+    public String getName() {
+      return "Name";
+    }
+
+    public String getEmail() {
+      return "Email";
+    }
+  }
+
+  private static final Address ADDRESS = new Address("City", "Zip");
+
   private static BaseMatcher<LiteRenderer<?>> rendersTo(String expectedValue) {
     return new BaseMatcher<>() {
 
@@ -70,6 +112,71 @@ public class LiteRendererTest  {
     return LiteRenderer.of(div);
   }
 
+  /** Generates the data of an item, with the JSON type of the version of Vaadin. */
+  private static <T> String generateData(Rendering<T> rendering, T item) throws Exception {
+    Method generateData = Stream.of(DataGenerator.class.getMethods())
+        .filter(method -> method.getName().equals("generateData"))
+        .findFirst().orElseThrow();
+    Class<?> type = generateData.getParameterTypes()[1];
+    Object json;
+    if (type == JsonObject.class) {
+      json = Json.createObject();
+    } else {
+      Object factory = Class.forName(type.getPackageName() + ".JsonNodeFactory")
+          .getField("instance").get(null);
+      json = factory.getClass().getMethod("objectNode").invoke(factory);
+    }
+    generateData.invoke(rendering.getDataGenerator().orElseThrow(), item, json);
+    return json instanceof JsonValue value ? value.toJson() : json.toString();
+  }
+
+  /** Returns the names of the properties that are sent for an item, without their namespace. */
+  private static <T> List<String> sentProperties(Rendering<T> rendering, T item)
+      throws Exception {
+    List<String> names = new ArrayList<>();
+    String json = generateData(rendering, item);
+    Matcher matcher = Pattern.compile("\"lr_\\w+?_(\\w+)\":").matcher(json);
+    while (matcher.find()) {
+      names.add(matcher.group(1));
+    }
+    Collections.sort(names);
+    return names;
+  }
+
+  /** Returns the template expression of the {@code LitRenderer} that was rendered last. */
+  private static String renderedTemplate(LiteRenderer<?> renderer) throws Exception {
+    Field field = LiteRenderer.class.getDeclaredField("renderer");
+    field.setAccessible(true);
+    Object rendered = field.get(renderer);
+    Method method = rendered.getClass().getDeclaredMethod("templateExpression");
+    method.setAccessible(true);
+    return (String) method.invoke(rendered);
+  }
+
+  /** Returns the fragment that was compiled last for a root component of the template. */
+  private static Object fragment(LiteRenderer<?> renderer, Component component) throws Exception {
+    Field field = LiteRenderer.class.getDeclaredField("fragments");
+    field.setAccessible(true);
+    Object cache = field.get(renderer);
+    field = cache.getClass().getDeclaredField("fragments");
+    field.setAccessible(true);
+    return ((Map<?, ?>) field.get(cache)).get(component);
+  }
+
+  /** Invokes a function of the compiled template of a frozen renderer. */
+  @SuppressWarnings("unchecked")
+  private static <T> void invokeFunction(LiteRenderer<T> renderer, String name, T item)
+      throws Exception {
+    Field field = LiteRenderer.class.getDeclaredField("frozen");
+    field.setAccessible(true);
+    Object frozen = field.get(renderer);
+    Method plan = frozen.getClass().getDeclaredMethod("plan");
+    plan.setAccessible(true);
+    var functions = (Map<String, SerializableBiConsumer<T, JsonArray>>) PropertyEncoderTest
+        .lookupMethod("TemplatePlan", "getFunctions").invoke(plan.invoke(frozen));
+    functions.get(name).accept(item, Json.createArray());
+  }
+
   private LiteRenderer<?> render(Consumer<LiteComponent<?>> consumer) {
     LiteComponent<Div> lite = LiteComponent.of(new Div());
     consumer.accept(lite);
@@ -105,6 +212,17 @@ public class LiteRendererTest  {
   }
 
 
+  @Test
+  public void testBodyLiteralLong() {
+    // longer than a machine word, with escaped characters at the start, middle and end
+    assertThat(renderWithBody("<one & two & three <four> five six seven eight &"), rendersTo("""
+        <div>&lt;one &amp; two &amp; three &lt;four> five six seven eight &amp;</div>
+        """));
+    assertThat(renderWithBody("one two three four five six seven eight nine"), rendersTo("""
+        <div>one two three four five six seven eight nine</div>
+        """));
+  }
+
   @Test
   public void testBodyLiteralStago() {
     assertThat(renderWithBody("<br>"), rendersTo("""
@@ -205,6 +323,14 @@ public class LiteRendererTest  {
         """));
   }
 
+  @Test
+  public void testPropertyIntValueProvider() {
+    assertThat(
+        render(lite -> lite.withElementPropertyInt("foo", Person::age)), rendersTo("""
+        <div .foo=${item.property0}></div>
+        """));
+  }
+
   @Test
   public void testPropertyList() {
     List<?> list = List.of(1, 2, 3);
@@ -272,4 +398,420 @@ public class LiteRendererTest  {
         """));
   }
 
+  @Test
+  public void testTemplateIsShared() {
+    assertThat(renderWithTitle("${item.bar}").toString(),
+        sameInstance(renderWithTitle("${item.bar}").toString()));
+    assertThat(renderWithTitle("${item.bar}").toString(),
+        not(sameInstance(renderWithTitle("${item.foo}").toString())));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFrozenRendererCannotBeConfigured() {
+    LiteRenderer.of(new Div()).freeze().withProperty("foo", x -> "bar");
+  }
+
+  @Test
+  public void testFrozenRendererReleasesTemplate() {
+    Div div = new Div("foo");
+    Button button = new Button("baz");
+    LiteRenderer<Person> renderer = LiteRenderer.of(new Div(div, button));
+    String template = renderer.toString();
+    renderer.freeze();
+    div.setText("bar");
+    assertThat(renderer.toString(), sameInstance(template));
+    // the template components are not modified
+    assertThat(button.getElement().getParent(), notNullValue());
+  }
+
+  @Test
+  public void testFrozenRendererFiresClickListeners() throws Exception {
+    List<Person> clicked = new ArrayList<>();
+    Button button = new Button("click", event -> {
+      clicked.add(LiteRenderer.getItem(event, Person.class));
+    });
+    LiteRenderer<Person> renderer = LiteRenderer.<Person>of(new Div(button)).freeze();
+    Person person = new Person("John", "Doe", null, null, 42);
+    invokeFunction(renderer, "function0", person);
+    assertThat(clicked, is(List.of(person)));
+  }
+
+  @Test
+  public void testFragmentsAreReused() throws Exception {
+    Span foo = new Span("foo");
+    Span bar = new Span("bar");
+    Div qux = new Div(new Span("qux"), new Span("quux"));
+    LiteRenderer<Person> renderer =
+        LiteRenderer.of(LiteComponent.of(foo), LiteComponent.of(bar), qux);
+    renderer.render(new Div().getElement(), null, "renderer");
+    Object fragment = fragment(renderer, qux);
+
+    // the changes that are not made through the renderer are seen when the template is recompiled
+    foo.setText("baz");
+    bar.add(new Span("child"));
+    renderer.withAttribute(bar, "title", "qux");
+    renderer.render(new Div().getElement(), null, "renderer");
+    assertThat(renderer, rendersTo("""
+        <span>baz</span><span title="qux">bar<span>child</span></span>
+        <div><span>qux</span><span>quux</span></div>
+        """));
+    assertThat(fragment(renderer, qux), sameInstance(fragment));
+
+    // reordering the children of a component
+    qux.addComponentAsFirst(qux.getComponentAt(1));
+    renderer.withAttribute(foo, "title", "foo");
+    renderer.render(new Div().getElement(), null, "renderer");
+    assertThat(renderer, rendersTo("""
+        <span title="foo">baz</span><span title="qux">bar<span>child</span></span>
+        <div><span>quux</span><span>qux</span></div>
+        """));
+  }
+
+  @Test
+  public void testUpdateRenderings() throws Exception {
+    Div div = new Div("${item.name}");
+    LiteRenderer<Person> renderer = LiteRenderer.<Person>of(div)
+        .withProperty("name", Person::firstName);
+    var rendering = renderer.render(new Div().getElement(), null, "renderer");
+    Person person = new Person("John", "Doe", null, null, 42);
+    assertThat(generateData(rendering, person), containsString("name\":\"John\""));
+
+    renderer.withAttribute(div, "title", Person::lastName).updateRenderings();
+    assertThat(generateData(rendering, person), containsString("\":\"Doe\""));
+  }
+
+  @Test
+  public void testUpdateRenderingsWithoutChanges() throws Exception {
+    ValueProvider<Person, String> firstName = Person::firstName;
+    LiteRenderer<Person> renderer = LiteRenderer.<Person>of(new Div("${item.name}"))
+        .withProperty("name", firstName);
+    var rendering = renderer.render(new Div().getElement(), null, "renderer");
+    Object rendered = renderedBy(rendering);
+
+    renderer.withProperty("name", firstName).updateRenderings();
+    assertThat(renderedBy(rendering), sameInstance(rendered));
+
+    renderer.withProperty("name", Person::lastName).updateRenderings();
+    assertThat(renderedBy(rendering), not(sameInstance(rendered)));
+  }
+
+  /** Returns the compiled renderer that was rendered last into a rendering. */
+  private static Object renderedBy(Rendering<?> rendering) throws Exception {
+    Field field = rendering.getClass().getDeclaredField("renderer");
+    field.setAccessible(true);
+    return field.get(rendering);
+  }
+
+  @Test
+  public void testPropertyRegisteredAfterRender() throws Exception {
+    LiteRenderer<Person> renderer = LiteRenderer.<Person>of(new Div("${item.foo} ${item.bar}"))
+        .withProperty("foo", Person::firstName)
+        .enableShortPropertyNames();
+    renderer.render(new Div().getElement(), null, "renderer");
+
+    renderer.withProperty("foo", LiteRenderer.constant("foo"))
+        .withProperty("bar", Person::lastName);
+    var rendering = renderer.render(new Div().getElement(), null, "renderer");
+    assertThat(renderedTemplate(renderer), containsString("${(\"foo\")} ${item.a}"));
+    assertThat(sentProperties(rendering, new Person("John", "Doe", null, null, 42)),
+        is(List.of("a")));
+  }
+
+  @Test
+  public void testShortNamesWithDynamicAccess() throws Exception {
+    var rendering = LiteRenderer.<Person>of(new Div("${item.foo} ${item['bar']}"))
+        .withProperty("foo", Person::firstName)
+        .withProperty("bar", Person::lastName)
+        .enableShortPropertyNames()
+        .render(new Div().getElement(), null, "renderer");
+    assertThat(sentProperties(rendering, new Person("John", "Doe", null, null, 42)),
+        is(List.of("bar", "foo")));
+  }
+
+  /** Generates the data of an item with a renderer that has the given properties. */
+  private static String generateData(String template,
+      Map<String, ValueProvider<Object, ?>> properties) throws Exception {
+    LiteRenderer<Object> renderer = LiteRenderer.of(new Div(template));
+    properties.forEach(renderer::withProperty);
+    return generateData(renderer.render(new Div().getElement(), null, "renderer"), new Object());
+  }
+
+  @Test
+  public void testProjectionOfRecord() throws Exception {
+    assertThat(generateData("${item.address.city}", Map.of("address", x -> ADDRESS)),
+        containsString("_address\":{\"city\":\"City\"}"));
+  }
+
+  @Test
+  public void testProjectionOfBean() throws Exception {
+    assertThat(generateData("${item.customer.name}", Map.of("customer", x -> new Customer())),
+        containsString("_customer\":{\"name\":\"Name\"}"));
+  }
+
+  @Test
+  public void testProjectionWithOptionalChaining() throws Exception {
+    assertThat(generateData("${item.address?.city}", Map.of("address", x -> ADDRESS)),
+        containsString("_address\":{\"city\":\"City\"}"));
+  }
+
+  @Test
+  public void testProjectionOfValueUsedAsWhole() throws Exception {
+    String data = generateData("${item.address.city} ${JSON.stringify(item.address)}",
+        Map.of("address", x -> ADDRESS));
+    assertThat(data, containsString("_address\":"));
+    assertThat(data, not(containsString("_address\":{\"city\":\"City\"}")));
+  }
+
+  @Test
+  public void testMinified() {
+    Div div = new Div(new Span("foo  bar"), new Span(" "), new Pre("foo  bar"));
+    assertThat(LiteRenderer.of(div).enableMinification().toString(), is(
+        "<div><span>foo bar</span><span> </span><pre>foo  bar</pre></div>"));
+  }
+
+  @Test
+  public void testNestedComponentIsPartOfTemplate() {
+    Span span = new Span();
+    LiteRenderer.of(new Div(new Div(span))).withProperty(span, "title", x -> "foo");
+  }
+
+  @Test
+  public void testLiteComponentIsPartOfTemplate() throws Exception {
+    Span span = new Span();
+    var rendering = LiteRenderer.<Person>of(new Div(new Div(span)))
+        .withAttribute(LiteComponent.of(span), "title", Person::firstName)
+        .render(new Div().getElement(), null, "renderer");
+    assertThat(generateData(rendering, new Person("John", "Doe", null, null, 42)),
+        containsString("\":\"John\""));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLiteComponentIsNotPartOfTemplate() {
+    LiteRenderer.of(new Div()).withProperty(LiteComponent.of(new Span()), "title", x -> "foo");
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testComponentIsNotPartOfTemplate() {
+    LiteRenderer.of(new Div()).withProperty(new Span(), "title", x -> "foo");
+  }
+
+  @Test
+  public void testStrictModeReferencedProperty() throws Exception {
+    var rendering = LiteRenderer.of(new Div("${item.foo}")).withProperty("foo", x -> "foo")
+        .enableStrictMode().render(new Div().getElement(), null, "renderer");
+    assertThat(sentProperties(rendering, new Object()), is(List.of("foo")));
+  }
+
+  @Test
+  public void testUnreferencedPropertyIsNotSent() throws Exception {
+    var rendering = LiteRenderer.of(new Div("${item.foo}"))
+        .withProperty("foo", x -> "foo")
+        .withProperty("bar", x -> "bar")
+        .render(new Div().getElement(), null, "renderer");
+    assertThat(sentProperties(rendering, new Object()), is(List.of("foo")));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testStrictModeUnreferencedProperty() {
+    LiteRenderer.of(new Div("${item.foo}")).withProperty("bar", x -> "bar")
+        .enableStrictMode().freeze();
+  }
+
+  @Test
+  public void testConstantsAreInlined() {
+    assertThat(render(lite -> lite
+        .withAttribute("title", LiteRenderer.constant("foo`"))
+        .withAttribute("tabindex", LiteRenderer.constant(1))
+        .withElementProperty("hidden", LiteRenderer.constant(true))), rendersTo("""
+            <div title=${`foo\\``} tabindex=${1} .hidden=${true}></div>
+            """));
+  }
+
+  @Test
+  public void testSharedValueProvider() {
+    ValueProvider<Person, ?> age = Person::age;
+    assertThat(render(lite -> lite
+        .withAttribute("title", age)
+        .withElementProperty("value", age)), rendersTo("""
+            <div title=${item.property0} .value=${item.property0}></div>
+            """));
+  }
+
+  @Test
+  public void testKeyedValueProvider() {
+    Span foo = new Span();
+    Span bar = new Span();
+    assertThat(LiteRenderer.<Person>of(new Div(foo, bar))
+        .withAttribute(foo, "title", LiteRenderer.keyed("name", Person::firstName))
+        .withAttribute(bar, "title", LiteRenderer.keyed("name", Person::firstName)), rendersTo("""
+            <div><span title=${item.property0}></span><span title=${item.property0}></span></div>
+            """));
+  }
+
+  @Test
+  public void testComputedPropertyDependencies() throws Exception {
+    LiteRenderer<Person> renderer = LiteRenderer.<Person>of(new Div("${item.fullName}"))
+        .withProperty("firstName", Person::firstName)
+        .withProperty("lastName", Person::lastName)
+        .withProperty("age", Person::age)
+        .withProperty("profession", Person::profession)
+        .withComputedProperty("name", "item.firstName + ' ' + item.lastName")
+        .withComputedProperty("fullName", "format(item.name, item.stats)", "profession")
+        .withComputedProperty("stats", "item.age")
+        .enableStrictMode();
+    var rendering = renderer.render(new Div().getElement(), null, "renderer");
+    assertThat(renderedTemplate(renderer), containsString(
+        "${(format((item.firstName + ' ' + item.lastName), (item.age)))}"));
+    assertThat(sentProperties(rendering, new Person("John", "Doe", null, "Job", 42)),
+        is(List.of("age", "firstName", "lastName", "profession")));
+  }
+
+  @Test
+  public void testPropertiesOf() throws Exception {
+    var rendering = LiteRenderer.<Person>of(
+        new Div("${item.name} (${item.age}) ${item.profession.length}"))
+        .withPropertiesOf(Person.class)
+        .withProperty("profession", person -> "Explicit")
+        .withComputedProperty("name", "item.firstName + ' ' + item.lastName")
+        .enableStrictMode()
+        .render(new Div().getElement(), null, "renderer");
+    String data = generateData(rendering, new Person("John", "Doe", null, "Job", 42));
+    assertThat(data, containsString("_firstName\":\"John\""));
+    assertThat(data, containsString("_lastName\":\"Doe\""));
+    assertThat(data, containsString("_age\":42"));
+    // an explicit property is not replaced by the record component
+    assertThat(data, containsString("_profession\":\"Explicit\""));
+  }
+
+  @Test
+  public void testPropertiesOfBean() throws Exception {
+    var rendering = LiteRenderer.<Customer>of(new Div("${item.name} ${item.email}"))
+        .withPropertiesOf(Customer.class)
+        .withProperty("email", customer -> "Explicit")
+        .render(new Div().getElement(), null, "renderer");
+    String data = generateData(rendering, new Customer());
+    assertThat(data, containsString("_name\":\"Name\""));
+    assertThat(data, containsString("_email\":\"Explicit\""));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testComputedPropertyCycle() {
+    LiteRenderer.of(new Div("${item.foo}"))
+        .withComputedProperty("foo", "item.bar + 1")
+        .withComputedProperty("bar", "item.foo + 1")
+        .freeze();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testPropertyConflictsWithGeneratedProperty() {
+    Div div = new Div();
+    LiteRenderer.<Person>of(div)
+        .withAttribute(div, "title", Person::age)
+        .withProperty("property0", Person::firstName)
+        .freeze();
+  }
+
+  @Test
+  public void testDeeplyNestedTemplate() {
+    Div root = new Div();
+    Div leaf = root;
+    for (int i = 0; i < 10000; i++) {
+      Div child = new Div();
+      leaf.add(child);
+      leaf = child;
+    }
+    LiteRenderer<Person> renderer = LiteRenderer.of(root);
+    renderer.withAttribute(leaf, "title", Person::firstName);
+    renderer.render(new Div().getElement(), null, "renderer");
+    String template = renderer.toString();
+    assertThat(template, containsString("<div title=${item.property0}>"));
+    assertThat(template.split("<div", -1).length, is(10002));
+  }
+
+  @Test
+  public void testWriteTemplate() throws IOException {
+    String text = "\u00e1\u20ac\ud83d\ude00 ".repeat(5000);
+    LiteRenderer<?> renderer = renderWithBody(text);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    renderer.writeTemplate(out);
+    assertThat(out.toString(StandardCharsets.UTF_8), is(renderer.toString()));
+
+    StringBuilder sb = new StringBuilder();
+    renderer.writeTemplate(sb);
+    assertThat(sb.toString(), is(renderer.toString()));
+  }
+
+  @Test
+  public void testWriteRewrittenTemplate() throws Exception {
+    LiteRenderer<Person> renderer = LiteRenderer.<Person>of(new Div("${item.foo} ${item.bar}"))
+        .withProperty("foo", LiteRenderer.constant("foo"))
+        .withProperty("bar", Person::lastName)
+        .enableShortPropertyNames();
+    assertThat(renderer.toString(), containsString("${(\"foo\")} ${item.a}"));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    renderer.writeTemplate(out);
+    assertThat(out.toString(StandardCharsets.UTF_8), is(renderer.toString()));
+    StringBuilder sb = new StringBuilder();
+    renderer.writeTemplate(sb);
+    assertThat(sb.toString(), is(renderer.toString()));
+
+    renderer.render(new Div().getElement(), null, "renderer");
+    assertThat(renderer.toString(), is(renderedTemplate(renderer)));
+  }
+
+  @Test
+  public void testBatchValueProviderOutsideBatch() {
+    ValueProvider<String, Integer> provider = LiteRenderer.batch(items -> {
+      assertThat(items, is(List.of("foo")));
+      return Map.of("foo", 3);
+    });
+    assertThat(provider.apply("foo"), is(3));
+  }
+
+  @Test
+  public void testBatchedDataIsDeferred() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    ValueProvider<Object, Address> batch = LiteRenderer.batch(items -> {
+      calls.incrementAndGet();
+      return items.stream().collect(Collectors.toMap(item -> item, item -> ADDRESS));
+    });
+    // the data is generated before the response is sent, thus never while detached
+    assertThat(generateData("${item.address.city}", Map.of("address", LiteRenderer.cached(batch))),
+        not(containsString("_address")));
+    assertThat(generateData("${item.address.city}", Map.of("address", batch)),
+        not(containsString("_address")));
+    assertThat(calls.get(), is(0));
+  }
+
+  @Test
+  public void testContextIsSharedByProviders() throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    var rendering = LiteRenderer.<Person>of(new Div("${item.first} ${item.last}"))
+        .withContext("name", person -> {
+          calls.incrementAndGet();
+          return person.firstName() + " " + person.lastName();
+        })
+        .withProperty("first", person -> LiteRenderer.getContext("name", String.class)
+            .split(" ")[0])
+        .withProperty("last", person -> LiteRenderer.getContext("name", String.class)
+            .split(" ")[1])
+        .render(new Div().getElement(), null, "renderer");
+
+    Person person = new Person("John", "Doe", null, null, 42);
+    String data = generateData(rendering, person);
+    assertThat(data, containsString("_first\":\"John\""));
+    assertThat(data, containsString("_last\":\"Doe\""));
+    assertThat(calls.get(), is(1));
+
+    // the context is not retained after the data of the item is generated
+    generateData(rendering, person);
+    assertThat(calls.get(), is(2));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testContextOutsideRendering() {
+    LiteRenderer.getContext("foo", String.class);
+  }
+
 }
@@ -30,12 +30,20 @@ import org.junit.Test;
 
 public class PropertyEncoderTest {
 
-  private static final Method encode = lookupMethod();
+  private static final Method encode = lookupMethod(String.class, String.class, String.class);
 
+  private static final Method encodeTo =
+      lookupMethod(String.class, String.class, String.class, StringBuilder.class);
+
+  static Method lookupMethod(Class<?>... parameterTypes) {
+    return lookupMethod("PropertyEncoder", "encode", parameterTypes);
+  }
+
+  /** Looks up a method of a package-private class of the add-on. */
   @SneakyThrows
-  static Method lookupMethod() {
-    var clazz = Class.forName("com.flowingcode.vaadin.addons.litetemplate.PropertyEncoder");
-    var method = clazz.getDeclaredMethod("encode", String.class, String.class, String.class);
+  static Method lookupMethod(String className, String name, Class<?>... parameterTypes) {
+    var clazz = Class.forName("com.flowingcode.vaadin.addons.litetemplate." + className);
+    var method = clazz.getDeclaredMethod(name, parameterTypes);
     method.setAccessible(true);
     return method;
   }
@@ -45,6 +53,16 @@ public class PropertyEncoderTest {
     return (String) ((Optional<?>) encode.invoke(null, s, "[", "]")).orElse(null);
   }
 
+  @SneakyThrows
+  private static String encodeTo(String s) {
+    StringBuilder sb = new StringBuilder("<");
+    if ((Boolean) encodeTo.invoke(null, s, "[", "]", sb)) {
+      return sb.append('>').toString();
+    } else {
+      return sb.length() == 1 ? null : sb.toString();
+    }
+  }
+
   private static Matcher<String> wrapped(String s) {
     return equalTo("[" + s + "]");
   }
@@ -70,6 +88,17 @@ public class PropertyEncoderTest {
     assertThat(encode(s = "`"), wrapped("\\`"));
   }
 
+  @Test
+  public void testLongTemplates() {
+    String s;
+    assertThat(encode(s = "abcdefghijklmnopqrstuvwxyz0123456789"), wrapped(s));
+    assertThat(encode(s = "abcdefghijklmnopqrstuvwxyz${a}"), wrapped(s));
+    assertThat(encode(s = "${abcdefghijklmnopqrstuvwxyz}"), equalTo(s));
+    assertThat(encode("abcdefghijklmnopqrstuvwxyz`0123456789`"),
+        wrapped("abcdefghijklmnopqrstuvwxyz\\`0123456789\\`"));
+    assertThat(encode("${abcdefghijklmnopqrstuvwxyz`}"), nullValue());
+  }
+
   @Test
   public void testInvalidTemplates() {
     assertThat(encode("${"), nullValue());
@@ -85,4 +114,11 @@ public class PropertyEncoderTest {
     assertThat(encode("${\"}"), nullValue());
     assertThat(encode("${`}"), nullValue());
   }
+
+  @Test
+  public void testEncodeToStringBuilder() {
+    assertThat(encodeTo("${a}"), equalTo("<${a}>"));
+    assertThat(encodeTo("a`${b}"), equalTo("<[a\\`${b}]>"));
+    assertThat(encodeTo("${`a}"), nullValue());
+  }
 }
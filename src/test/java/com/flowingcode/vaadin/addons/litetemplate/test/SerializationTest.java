@@ -19,10 +19,14 @@
  */
 package com.flowingcode.vaadin.addons.litetemplate.test;
 
+import com.flowingcode.vaadin.addons.litetemplate.CachedValueProvider;
 import com.flowingcode.vaadin.addons.litetemplate.LiteRenderer;
 import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.function.ValueProvider;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
@@ -33,14 +37,20 @@ import org.junit.Test;
 
 public class SerializationTest {
 
-  private void testSerializationOf(Object obj) throws IOException, ClassNotFoundException {
+  private byte[] serialize(Object obj) throws IOException {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
       oos.writeObject(obj);
     }
+    return baos.toByteArray();
+  }
+
+  private <T> T testSerializationOf(T obj) throws IOException, ClassNotFoundException {
     try (ObjectInputStream in =
-        new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()))) {
-      obj.getClass().cast(in.readObject());
+        new ObjectInputStream(new ByteArrayInputStream(serialize(obj)))) {
+      @SuppressWarnings("unchecked")
+      T result = (T) obj.getClass().cast(in.readObject());
+      return result;
     }
   }
 
@@ -56,4 +66,60 @@ public class SerializationTest {
       Assert.fail("Problem while testing serialization: " + e);
     }
   }
+
+  @Test
+  public void testCachedValueProviderSerialization() throws ClassNotFoundException, IOException {
+    CachedValueProvider<Object, String> provider = LiteRenderer.cached(String::valueOf);
+    provider.apply(1);
+    CachedValueProvider<Object, String> deserialized = testSerializationOf(provider);
+    Assert.assertEquals(0, deserialized.size());
+    Assert.assertEquals("1", deserialized.apply(1));
+    Assert.assertEquals(1, deserialized.size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testAccessorNotResolvedAfterDeserialization() throws Exception {
+    // as if the property was removed from the class after the value provider was serialized
+    var constructor = Class.forName(
+        "com.flowingcode.vaadin.addons.litetemplate.PropertyAccessors$AccessorValueProvider")
+        .getDeclaredConstructor(Class.class, String.class);
+    constructor.setAccessible(true);
+    @SuppressWarnings("unchecked")
+    var provider = (ValueProvider<Object, ?>) constructor.newInstance(Span.class, "missing");
+    testSerializationOf(provider).apply(new Span());
+  }
+
+  @Test
+  public void testFrozenSerialization() throws ClassNotFoundException, IOException {
+    var tf = new TextField();
+    LiteRenderer<?> renderer = LiteRenderer.of(new HorizontalLayout(new Span("text"), tf))
+        .withListener(tf, "change", (person, args) -> {}, "event.target.value");
+    int size = serialize(renderer).length;
+    String template = renderer.freeze().toString();
+    int frozenSize = serialize(renderer).length;
+    Assert.assertTrue(frozenSize < size);
+    // only the compiled plan is written, without any component
+    Assert.assertTrue("Frozen renderer written in " + frozenSize + " bytes", frozenSize < 4096);
+
+    LiteRenderer<?> deserialized = testSerializationOf(renderer);
+    Assert.assertTrue(deserialized.isFrozen());
+    // the deserialized template is the one that is cached for the application
+    Assert.assertSame(template, deserialized.toString());
+    Assert.assertSame(template, testSerializationOf(renderer).toString());
+    deserialized.render(new Div().getElement(), null, "renderer");
+  }
+
+  @Test
+  public void testSelfReferencingSerialization() throws ClassNotFoundException, IOException {
+    var b = new Button("text");
+    LiteRenderer<Object> renderer = LiteRenderer.of(new HorizontalLayout(b));
+    renderer.withListener(b, "click", item -> renderer.updateRenderings());
+    String template = renderer.toString();
+    Assert.assertEquals(template, testSerializationOf(renderer).toString());
+
+    renderer.freeze();
+    LiteRenderer<?> deserialized = testSerializationOf(renderer);
+    Assert.assertTrue(deserialized.isFrozen());
+    Assert.assertEquals(template, deserialized.toString());
+  }
 }
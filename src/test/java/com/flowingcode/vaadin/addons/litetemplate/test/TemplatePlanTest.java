@@ -0,0 +1,53 @@
+/*-
+ * #%L
+ * Lite Renderer Add-On
+ * %%
+ * Copyright (C) 2024 Flowing Code
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.flowingcode.vaadin.addons.litetemplate.test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import java.lang.reflect.Method;
+import lombok.SneakyThrows;
+import org.junit.Test;
+
+public class TemplatePlanTest {
+
+  private static final Method shortName =
+      PropertyEncoderTest.lookupMethod("TemplatePlan", "shortName", int.class);
+
+  @SneakyThrows
+  private static String shortName(int index) {
+    return (String) shortName.invoke(null, index);
+  }
+
+  @Test
+  public void testShortNames() {
+    assertThat(shortName(0), is("a"));
+    assertThat(shortName(25), is("z"));
+    assertThat(shortName(26), is("A"));
+    assertThat(shortName(51), is("Z"));
+    assertThat(shortName(52), is("aa"));
+    assertThat(shortName(52 + 61), is("a9"));
+    assertThat(shortName(52 + 62), is("ba"));
+    assertThat(shortName(52 + 62 * 52 - 1), is("Z9"));
+    assertThat(shortName(52 + 62 * 52), is("aaa"));
+    assertThat(shortName(52 + 62 * 52 + 62 * 62 * 52 - 1), is("Z99"));
+    assertThat(shortName(52 + 62 * 52 + 62 * 62 * 52), is("aaaa"));
+  }
+
+}